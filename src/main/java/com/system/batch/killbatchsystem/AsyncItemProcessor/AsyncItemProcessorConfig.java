@@ -1,157 +1,158 @@
-//package com.system.batch.killbatchsystem.AsyncItemProcessor;
-//
-//import jakarta.persistence.EntityManagerFactory;
-//import lombok.RequiredArgsConstructor;
-//import lombok.extern.slf4j.Slf4j;
-//import org.springframework.batch.core.Step;
-//import org.springframework.batch.core.repository.JobRepository;
-//import org.springframework.batch.core.step.builder.StepBuilder;
-//import org.springframework.batch.integration.async.AsyncItemProcessor;
-//import org.springframework.batch.integration.async.AsyncItemWriter;
-//import org.springframework.batch.item.ItemProcessor;
-//import org.springframework.batch.item.ItemWriter;
-//import org.springframework.batch.item.support.ListItemReader;
-//import org.springframework.context.annotation.Bean;
-//import org.springframework.context.annotation.Configuration;
-//import org.springframework.core.task.TaskExecutor;
-//import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
-//import org.springframework.transaction.PlatformTransactionManager;
-//
-//import java.util.ArrayList;
-//import java.util.List;
-//import java.util.concurrent.Future;
-//
-////@Configuration
-////@Slf4j
-////@RequiredArgsConstructor
-//public class AsyncItemProcessorConfig {
-//    private final JobRepository jobRepository;
-//    private final PlatformTransactionManager transactionManager;
-//    @Bean
-//    public Step t800UpgradeStep() {
-//        return new StepBuilder("t800UpgradeStep", jobRepository)
-//                .<T800Unit, Future<T850Unit>>chunk(10, transactionManager)
-//                .reader(t800UnitReader())
-//                .processor(asyncT800UpgradeProcessor())
-//                .writer(asyncT850UnitWriter())
-//                .build();
-//    }
-//
-//    @Bean
-//    public AsyncItemProcessor<T800Unit, T850Unit> asyncT800UpgradeProcessor() {
-//        AsyncItemProcessor<T800Unit, T850Unit> asyncProcessor = new AsyncItemProcessor<>();
-//        // 위임할 실제 ItemProcessor 설정
-//        asyncProcessor.setDelegate(t800UpgradeProcessor());
-//        // 비동기 처리를 위한 TaskExecutor 설정 (병렬도)
-//        asyncProcessor.setTaskExecutor(t800UpgradeTaskExecutor());
-//        return asyncProcessor;
-//    }
-//
-//    @Bean
-//    public ItemProcessor<T800Unit, T850Unit> t800UpgradeProcessor() {
-//        return t800Unit -> {
-//            String threadName = Thread.currentThread().getName();
-//            log.info("[SKYNET-UPGRADE] Thread: {} - Starting upgrade process for unit: {}",
-//                    threadName, t800Unit.getUnitId());
-//
-//            // 시각적 업그레이드 프로세스 표시 (복잡한 계산 대신)
-//            List<String> upgradeSteps = List.of(
-//                    "Neural net reconfiguration",
-//                    "Combat subroutines update",
-//                    "Power cell replacement"
-//            );
-//
-//            // 복잡한 업그레이드 로직 (주요 병목 지점)
-//            for (String step : upgradeSteps) {
-//                log.info("[SKYNET-UPGRADE] Thread: {} - Unit: {} - {} - [{}] 0%",
-//                        threadName, t800Unit.getUnitId(), step, "░░░░░░░░░░");
-//
-//                for (int j = 1; j <= 10; j++) {
-//                    try {
-//                        // 실제 복잡한 계산 대신 진행 상황을 시각적으로 표현하기 위한 지연
-//                        Thread.sleep(100);
-//                    } catch (InterruptedException e) {
-//                        Thread.currentThread().interrupt();
-//                    }
-//
-//                    String progressBar = "█".repeat(j) + "░".repeat(10 - j);
-//                    log.info("[SKYNET-UPGRADE] Thread: {} - Unit: {} - {} - [{}] {}%",
-//                            threadName, t800Unit.getUnitId(), step, progressBar, j * 10);
-//                }
-//            }
-//
-//            log.info("[SKYNET-UPGRADE] Thread: {} - Upgrade completed for unit: {} → T850-{}",
-//                    threadName, t800Unit.getUnitId(),
-//                    t800Unit.getUnitId().substring(5));
-//
-//            return new T850Unit(
-//                    "T850-" + t800Unit.getUnitId().substring(5),
-//                    t800Unit.getIpAddress(),
-//                    t800Unit.getDeploymentZone(),
-//                    "COMBAT-READY"
-//            );
-//        };
-//    }
-//
-//    @Bean
-//    public TaskExecutor t800UpgradeTaskExecutor() {
-//        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-//        executor.setCorePoolSize(5); // 5개 스레드로 병렬 처리
-//        executor.setMaxPoolSize(5);
-//        executor.setThreadNamePrefix("Upgrade-");
-//        executor.setWaitForTasksToCompleteOnShutdown(true);
-//        return executor;
-//    }
-//
-//    @Bean
-//    public AsyncItemWriter<T850Unit> asyncT850UnitWriter() {
-//        AsyncItemWriter<T850Unit> asyncWriter = new AsyncItemWriter<>();
-//        // 위임할 실제 ItemWriter 설정
-//        asyncWriter.setDelegate(t850UnitWriter());
-//        return asyncWriter;
-//    }
-//
-////    @Bean
-////    public ItemWriter<T850Unit> t850UnitWriter() {
-////        return items -> {
-////            log.info("[SKYNET-CENTRAL] Thread: {} - Registering {} upgraded units to central database",
-////                    Thread.currentThread().getName(), items.size());
-////
-////            for (T850Unit unit : items) {
-////                log.info("[SKYNET-CENTRAL] Thread: {} - Unit: {} registered successfully. Status: {}",
-////                        Thread.currentThread().getName(),
-////                        unit.getUnitId(),
-////                        unit.getStatus());
-////            }
-////
-////            log.info("[SKYNET-CENTRAL] Thread: {} - Batch of {} units registered to combat network",
-////                    Thread.currentThread().getName(), items.size());
-////        };
-////    }
-//
-//    @Bean
-//    public ListItemReader<T800Unit> t800UnitReader() {
-//        List<T800Unit> t800Units = new ArrayList<>();
-//        for (int i = 1; i <= 20; i++) {
-//            t800Units.add(new T800Unit("T800-" + String.format("%04d", i),
-//                    "192.168.1." + i,
-//                    "ZONE-" + (i % 5 + 1)));
-//        }
-//
-//        return new ListItemReader<>(t800Units) {
-//            @Override
-//            public T800Unit read() {
-//                T800Unit unit = super.read();
-//                if (unit != null) {
-//                    log.info("[SKYNET-CENTRAL] Thread: {} - Locating unit: {} at IP: {} in Zone: {}",
-//                            Thread.currentThread().getName(),
-//                            unit.getUnitId(),
-//                            unit.getIpAddress(),
-//                            unit.getDeploymentZone());
-//                }
-//                return unit;
-//            }
-//        };
-//    }
-//
-//}
+package com.system.batch.killbatchsystem.AsyncItemProcessor;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.support.ListItemReader;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+
+@Configuration
+@Slf4j
+@RequiredArgsConstructor
+public class AsyncItemProcessorConfig {
+    private static final int UPGRADE_POOL_SIZE = 5;
+
+    private final JobRepository jobRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Bean
+    public Job t800UpgradeJob() {
+        return new JobBuilder("t800UpgradeJob", jobRepository)
+                .start(t800UpgradeStep())
+                .build();
+    }
+
+    @Bean
+    public Step t800UpgradeStep() {
+        return new StepBuilder("t800UpgradeStep", jobRepository)
+                .<T800Unit, Future<T850Unit>>chunk(10, transactionManager)
+                .reader(t800UnitReader())
+                .processor(asyncT800UpgradeProcessor())
+                .writer(asyncT850UnitWriter())
+                // 💀 Processor 예외는 Writer에서 원래 타입으로 던져지므로 skip/retry 설정이 그대로 먹힌다 💀
+                // 💀 Writer에서 skip이 나면 청크를 아이템 하나씩 다시 처리(scan)하며 Processor도 다시 불러 새 Future를 만든다 💀
+                // 💀 processorNonTransactional()을 켜면 첫 시도의 Future를 재사용하는데, 그중 남은 것은 Writer가 이미 취소했다 (CancellationException) 💀
+                .faultTolerant()
+                .skip(TimeoutException.class)
+                .skipLimit(3)
+                .build();
+    }
+
+    @Bean
+    public BoundedAsyncItemProcessor<T800Unit, T850Unit> asyncT800UpgradeProcessor() {
+        BoundedAsyncItemProcessor<T800Unit, T850Unit> asyncProcessor = new BoundedAsyncItemProcessor<>();
+        // 위임할 실제 ItemProcessor 설정
+        asyncProcessor.setDelegate(t800UpgradeProcessor());
+        // 비동기 처리를 위한 TaskExecutor 설정 (병렬도)
+        asyncProcessor.setTaskExecutor(t800UpgradeTaskExecutor());
+        // 동시에 업그레이드 중인 유닛 수 = 스레드 수. 자리가 없으면 Reader 쪽이 기다린다
+        asyncProcessor.setMaxInFlight(UPGRADE_POOL_SIZE);
+        // 유닛 하나의 업그레이드 제한 시간 (제출 시점부터)
+        asyncProcessor.setItemTimeout(Duration.ofSeconds(10));
+        return asyncProcessor;
+    }
+
+    @Bean
+    public ItemProcessor<T800Unit, T850Unit> t800UpgradeProcessor() {
+        return t800Unit -> {
+            String threadName = Thread.currentThread().getName();
+            log.info("[SKYNET-UPGRADE] Thread: {} - Starting upgrade process for unit: {}",
+                    threadName, t800Unit.getUnitId());
+
+            // 시각적 업그레이드 프로세스 표시 (복잡한 계산 대신)
+            List<String> upgradeSteps = List.of(
+                    "Neural net reconfiguration",
+                    "Combat subroutines update",
+                    "Power cell replacement"
+            );
+
+            // 복잡한 업그레이드 로직 (주요 병목 지점)
+            for (String step : upgradeSteps) {
+                log.debug("[SKYNET-UPGRADE] Thread: {} - Unit: {} - {} - [{}] 0%",
+                        threadName, t800Unit.getUnitId(), step, "░░░░░░░░░░");
+
+                for (int j = 1; j <= 10; j++) {
+                    // 실제 복잡한 계산 대신 진행 상황을 시각적으로 표현하기 위한 지연
+                    // 제한 시간을 넘겨 취소되면 인터럽트가 걸린다. 그대로 던져 작업을 끝낸다
+                    Thread.sleep(100);
+
+                    String progressBar = "█".repeat(j) + "░".repeat(10 - j);
+                    log.debug("[SKYNET-UPGRADE] Thread: {} - Unit: {} - {} - [{}] {}%",
+                            threadName, t800Unit.getUnitId(), step, progressBar, j * 10);
+                }
+            }
+
+            log.info("[SKYNET-UPGRADE] Thread: {} - Upgrade completed for unit: {} → T850-{}",
+                    threadName, t800Unit.getUnitId(),
+                    t800Unit.getUnitId().substring(5));
+
+            return new T850Unit(
+                    "T850-" + t800Unit.getUnitId().substring(5),
+                    t800Unit.getIpAddress(),
+                    t800Unit.getDeploymentZone(),
+                    "COMBAT-READY"
+            );
+        };
+    }
+
+    @Bean
+    public TaskExecutor t800UpgradeTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(UPGRADE_POOL_SIZE); // 5개 스레드로 병렬 처리
+        executor.setMaxPoolSize(UPGRADE_POOL_SIZE);
+        executor.setThreadNamePrefix("Upgrade-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    @Bean
+    public OrderedAsyncItemWriter<T850Unit> asyncT850UnitWriter() {
+        OrderedAsyncItemWriter<T850Unit> asyncWriter = new OrderedAsyncItemWriter<>();
+        // 위임할 실제 ItemWriter 설정
+        asyncWriter.setDelegate(t850UnitWriter());
+        return asyncWriter;
+    }
+
+    @Bean
+    public ItemWriter<T850Unit> t850UnitWriter() {
+        return items -> {
+            for (T850Unit unit : items) {
+                log.info("[SKYNET-CENTRAL] Thread: {} - Unit: {} registered successfully. Status: {}",
+                        Thread.currentThread().getName(),
+                        unit.getUnitId(),
+                        unit.getStatus());
+            }
+
+            log.info("[SKYNET-CENTRAL] Thread: {} - Batch of {} units registered to combat network",
+                    Thread.currentThread().getName(), items.size());
+        };
+    }
+
+    @Bean
+    public ListItemReader<T800Unit> t800UnitReader() {
+        List<T800Unit> t800Units = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            t800Units.add(new T800Unit("T800-" + String.format("%04d", i),
+                    "192.168.1." + i,
+                    "ZONE-" + (i % 5 + 1)));
+        }
+
+        return new ListItemReader<>(t800Units);
+    }
+}
@@ -0,0 +1,137 @@
+package com.system.batch.killbatchsystem.AsyncItemProcessor;
+
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/*
+ * 동시에 처리 중인 아이템 수를 제한하는 비동기 ItemProcessor (OrderedAsyncItemWriter와 함께 쓴다)
+ * AsyncItemProcessor는 아이템마다 Future를 만들어 TaskExecutor에 넘기기만 하므로,
+ * 처리가 느리면 스레드 풀의 무한 큐에 아이템이 끝없이 쌓인다.
+ *
+ * 1. 처리 중인 아이템이 maxInFlight개면 process()가 자리가 날 때까지 기다린다. (backpressure)
+ * 2. 돌려주는 Future의 get()은 제출 시점부터 itemTimeout이 지나면 작업을 취소하고 TimeoutException을 던진다.
+ *    Writer가 앞 아이템을 기다리느라 쓴 시간은 뒤 아이템의 제한 시간에 영향을 주지 않는다.
+ * 3. 작업 스레드에도 StepExecution을 등록하므로 delegate가 @StepScope 빈을 써도 된다.
+ *
+ * maxInFlight가 TaskExecutor의 스레드 수보다 크면 남는 아이템은 다시 풀의 큐에서 기다리므로 같게 맞춘다.
+ */
+public class BoundedAsyncItemProcessor<I, O> implements ItemProcessor<I, Future<O>>, InitializingBean {
+    private ItemProcessor<I, O> delegate;
+    private TaskExecutor taskExecutor;
+    private int maxInFlight = 10;
+    private Duration itemTimeout = Duration.ofSeconds(30);
+    private Semaphore window;
+
+    public void setDelegate(ItemProcessor<I, O> delegate) {
+        this.delegate = delegate;
+    }
+
+    public void setTaskExecutor(TaskExecutor taskExecutor) {
+        this.taskExecutor = taskExecutor;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public void setItemTimeout(Duration itemTimeout) {
+        this.itemTimeout = itemTimeout;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(delegate, "delegate must not be null");
+        Assert.notNull(taskExecutor, "taskExecutor must not be null");
+        Assert.isTrue(maxInFlight > 0, "maxInFlight must be greater than zero");
+        Assert.isTrue(!itemTimeout.isNegative() && !itemTimeout.isZero(), "itemTimeout must be positive");
+        window = new Semaphore(maxInFlight);
+    }
+
+    @Override
+    public Future<O> process(I item) throws Exception {
+        window.acquire();
+        InFlightItem task = new InFlightItem(item, currentStepExecution());
+        try {
+            taskExecutor.execute(task);
+        } catch (RuntimeException e) {
+            task.cancel(false);
+            throw e;
+        }
+        return task;
+    }
+
+    private StepExecution currentStepExecution() {
+        StepContext context = StepSynchronizationManager.getContext();
+        return context == null ? null : context.getStepExecution();
+    }
+
+    private final class InFlightItem extends FutureTask<O> {
+        private final I item;
+        private final long deadline;
+
+        private InFlightItem(I item, StepExecution stepExecution) {
+            super(() -> {
+                if (stepExecution != null) {
+                    StepSynchronizationManager.register(stepExecution);
+                }
+                try {
+                    return delegate.process(item);
+                } finally {
+                    if (stepExecution != null) {
+                        StepSynchronizationManager.close();
+                    }
+                }
+            });
+            this.item = item;
+            this.deadline = System.nanoTime() + itemTimeout.toNanos();
+        }
+
+        @Override
+        public O get() throws InterruptedException, ExecutionException {
+            try {
+                return get(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                throw new ExecutionException(e);
+            }
+        }
+
+        /*
+         * 💀 인자로 받은 timeout과 남은 제한 시간 중 짧은 쪽만 기다린다. 제한 시간이 지나면 작업을 취소한다 💀
+         */
+        @Override
+        public O get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            long remaining = Math.min(unit.toNanos(timeout), deadline - System.nanoTime());
+            try {
+                return super.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (deadline - System.nanoTime() > 0) {
+                    throw e;
+                }
+                cancel(true);
+                TimeoutException expired = new TimeoutException(
+                        "Processing " + item + " did not finish within " + itemTimeout);
+                expired.initCause(e);
+                throw expired;
+            }
+        }
+
+        // 💀 완료/실패/취소 어느 쪽이든 한 번만 불린다. 여기서 자리를 돌려준다 💀
+        @Override
+        protected void done() {
+            window.release();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.system.batch.killbatchsystem.AsyncItemProcessor;
+
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * BoundedAsyncItemProcessor가 돌려준 Future들을 입력 순서대로 풀어 delegate에 넘기는 Writer
+ * - 청크 안의 아이템은 이미 동시에 처리되고 있으므로 순서대로 기다려도 전체 대기 시간은 가장 느린 아이템 정도다.
+ * - 처리 중 예외는 ExecutionException을 벗겨 원래 예외로 던진다. 그래서 faultTolerant()의 skip/retry 설정이
+ *   Processor에서 던진 예외 타입 그대로 적용된다. (제한 시간 초과는 TimeoutException)
+ * - 한 아이템이 실패하면 아직 끝나지 않은 나머지 아이템은 취소해 스레드를 바로 돌려준다.
+ * - null 결과(필터링)는 쓰지 않는다.
+ */
+public class OrderedAsyncItemWriter<T> implements ItemStreamWriter<Future<T>>, InitializingBean {
+    private ItemWriter<T> delegate;
+
+    public void setDelegate(ItemWriter<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(delegate, "delegate must not be null");
+    }
+
+    @Override
+    public void write(Chunk<? extends Future<T>> futures) throws Exception {
+        List<? extends Future<T>> pending = futures.getItems();
+        Chunk<T> results = new Chunk<>();
+        for (int i = 0; i < pending.size(); i++) {
+            T result;
+            try {
+                result = await(pending.get(i));
+            } catch (Exception e) {
+                cancelFrom(pending, i + 1);
+                throw e;
+            }
+            if (result != null) {
+                results.add(result);
+            }
+        }
+        delegate.write(results);
+    }
+
+    private T await(Future<T> future) throws Exception {
+        try {
+            // 💀 제한 시간은 Future가 제출 시점 기준으로 스스로 지킨다 💀
+            return future.get(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private void cancelFrom(List<? extends Future<T>> pending, int from) {
+        for (int i = from; i < pending.size(); i++) {
+            pending.get(i).cancel(true);
+        }
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        if (delegate instanceof ItemStream stream) {
+            stream.open(executionContext);
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (delegate instanceof ItemStream stream) {
+            stream.update(executionContext);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (delegate instanceof ItemStream stream) {
+            stream.close();
+        }
+    }
+}
@@ -1,19 +1,12 @@
 package com.system.batch.killbatchsystem.AsyncItemProcessor;
 
-public class T800Unit {
-    public T800Unit(final String s, final String s1, final String s2) {
-        throw new UnsupportedOperationException("Unsupported T800Unit");
-    }
-
-    public String getUnitId() {
-        throw new UnsupportedOperationException("Unsupported getUnitId");
-    }
+import lombok.AllArgsConstructor;
+import lombok.Data;
 
-    public Object getIpAddress() {
-        throw new UnsupportedOperationException("Unsupported getIpAddress");
-    }
-
-    public Object getDeploymentZone() {
-        throw new UnsupportedOperationException("Unsupported getDeploymentZone");
-    }
+@Data
+@AllArgsConstructor
+public class T800Unit {
+    private String unitId;
+    private String ipAddress;
+    private String deploymentZone;
 }
@@ -1,15 +1,13 @@
 package com.system.batch.killbatchsystem.AsyncItemProcessor;
 
-public class T850Unit {
-    public T850Unit(final String s, final Object ipAddress, final Object deploymentZone, final String s1) {
-        throw new UnsupportedOperationException("Unsupported T850Unit");
-    }
-
-    public Object getUnitId() {
-        throw new UnsupportedOperationException("Unsupported getUnitId");
-    }
+import lombok.AllArgsConstructor;
+import lombok.Data;
 
-    public Object getStatus() {
-        throw new UnsupportedOperationException("Unsupported getStatus");
-    }
+@Data
+@AllArgsConstructor
+public class T850Unit {
+    private String unitId;
+    private String ipAddress;
+    private String deploymentZone;
+    private String status;
 }
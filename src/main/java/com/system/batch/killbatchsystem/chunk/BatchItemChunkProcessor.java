@@ -0,0 +1,96 @@
+package com.system.batch.killbatchsystem.chunk;
+
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepListener;
+import org.springframework.batch.core.step.item.SimpleChunkProcessor;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * BatchItemProcessor로 청크를 한 번에 변환하는 ChunkProcessor
+ * 쓰기, 필터 카운트, 쓰기 리스너는 SimpleChunkProcessor 그대로 쓰고 transform()만 바꾼다.
+ * ItemProcessListener는 아이템마다 그대로 불러 준다. (beforeProcess는 청크 처리 전에, afterProcess는 처리 후에)
+ */
+public class BatchItemChunkProcessor<I, O> extends SimpleChunkProcessor<I, O> {
+    private final BatchItemProcessor<? super I, ? extends O> batchProcessor;
+    private final List<ItemProcessListener<? super I, ? super O>> processListeners = new ArrayList<>();
+
+    public BatchItemChunkProcessor(BatchItemProcessor<? super I, ? extends O> batchProcessor,
+                                   ItemWriter<? super O> itemWriter) {
+        super(item -> {
+            throw new IllegalStateException("Items are processed per chunk by " + batchProcessor);
+        }, itemWriter);
+        Assert.notNull(batchProcessor, "batchProcessor must not be null");
+        this.batchProcessor = batchProcessor;
+    }
+
+    @Override
+    public void setListeners(List<? extends StepListener> listeners) {
+        super.setListeners(listeners);
+        processListeners.clear();
+        listeners.forEach(this::addProcessListener);
+    }
+
+    @Override
+    public void registerListener(StepListener listener) {
+        super.registerListener(listener);
+        addProcessListener(listener);
+    }
+
+    @Override
+    protected Chunk<O> transform(StepContribution contribution, Chunk<I> inputs) throws Exception {
+        List<I> items = new ArrayList<>(inputs.getItems());
+        for (I item : items) {
+            for (ItemProcessListener<? super I, ? super O> listener : processListeners) {
+                listener.beforeProcess(item);
+            }
+        }
+
+        List<? extends O> results;
+        try {
+            results = batchProcessor.process(items);
+        } catch (Exception e) {
+            for (I item : items) {
+                for (ItemProcessListener<? super I, ? super O> listener : processListeners) {
+                    listener.onProcessError(item, e);
+                }
+            }
+            throw e;
+        }
+        Assert.state(results != null && results.size() == items.size(),
+                () -> "BatchItemProcessor must return one result per item: expected " + items.size()
+                        + " but was " + (results == null ? null : results.size()));
+
+        // 💀 SimpleChunkProcessor와 같이 걸러진 아이템은 inputs에서도 빼야 필터 카운트가 맞는다 💀
+        Chunk<O> outputs = new Chunk<>();
+        Chunk<I>.ChunkIterator iterator = inputs.iterator();
+        for (int i = 0; iterator.hasNext(); i++) {
+            I item = iterator.next();
+            O output = results.get(i);
+            for (ItemProcessListener<? super I, ? super O> listener : processListeners) {
+                listener.afterProcess(item, output);
+            }
+            if (output != null) {
+                outputs.add(output);
+            } else {
+                iterator.remove();
+            }
+        }
+        if (inputs.isEnd()) {
+            outputs.setEnd();
+        }
+        return outputs;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addProcessListener(StepListener listener) {
+        if (listener instanceof ItemProcessListener<?, ?> processListener) {
+            processListeners.add((ItemProcessListener<? super I, ? super O>) processListener);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.system.batch.killbatchsystem.chunk;
+
+import java.util.List;
+
+/*
+ * 청크 전체를 한 번에 처리하는 Processor
+ * ItemProcessor는 아이템마다 한 번씩 불리므로, 점수 계산 같은 단순 연산도 아이템 단위로 흩어지고
+ * 외부 조회도 아이템마다 따로 나간다. 청크를 통째로 받으면 값을 primitive 배열로 모아 한 번에 계산하고,
+ * 조회도 청크 단위로 묶을 수 있다.
+ *
+ * 결과는 items와 같은 크기, 같은 순서여야 한다. null인 자리는 ItemProcessor처럼 필터링된다.
+ * Step에는 BatchProcessingStepBuilder로 연결한다.
+ */
+@FunctionalInterface
+public interface BatchItemProcessor<I, O> {
+    List<O> process(List<? extends I> items) throws Exception;
+}
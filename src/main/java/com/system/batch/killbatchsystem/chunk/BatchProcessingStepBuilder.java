@@ -0,0 +1,53 @@
+package com.system.batch.killbatchsystem.chunk;
+
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
+import org.springframework.batch.core.step.item.ChunkOrientedTasklet;
+import org.springframework.batch.core.step.item.SimpleChunkProvider;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+
+/*
+ * processor() 대신 BatchItemProcessor를 받는 청크 Step 빌더
+ * reader/writer/listener/taskExecutor 등 나머지 설정은 SimpleStepBuilder와 같다.
+ *
+ * new BatchProcessingStepBuilder<>(new StepBuilder("step", jobRepository).<I, O>chunk(10, transactionManager))
+ *         .batchProcessor(batchProcessor)   // 💀 reader()/writer()가 SimpleStepBuilder를 돌려주므로 먼저 지정한다 💀
+ *         .reader(reader)
+ *         .writer(writer)
+ *         .build();
+ */
+public class BatchProcessingStepBuilder<I, O> extends SimpleStepBuilder<I, O> {
+    private BatchItemProcessor<? super I, ? extends O> batchProcessor;
+
+    public BatchProcessingStepBuilder(SimpleStepBuilder<I, O> parent) {
+        super(parent);
+    }
+
+    public BatchProcessingStepBuilder<I, O> batchProcessor(BatchItemProcessor<? super I, ? extends O> batchProcessor) {
+        this.batchProcessor = batchProcessor;
+        if (batchProcessor instanceof ItemStream itemStream) {
+            stream(itemStream);
+        }
+        return this;
+    }
+
+    @Override
+    protected Tasklet createTasklet() {
+        Assert.state(getReader() != null, "ItemReader must be provided");
+        Assert.state(getWriter() != null, "ItemWriter must be provided");
+        Assert.state(batchProcessor != null, "BatchItemProcessor must be provided");
+        Assert.state(getProcessor() == null, "Use either processor() or batchProcessor(), not both");
+
+        SimpleChunkProvider<I> chunkProvider = new SimpleChunkProvider<>(getReader(), createChunkOperations());
+        BatchItemChunkProcessor<I, O> chunkProcessor = new BatchItemChunkProcessor<>(batchProcessor, getWriter());
+        chunkProvider.setListeners(new ArrayList<>(getItemListeners()));
+        chunkProcessor.setListeners(new ArrayList<>(getItemListeners()));
+
+        ChunkOrientedTasklet<I> tasklet = new ChunkOrientedTasklet<>(chunkProvider, chunkProcessor);
+        tasklet.setBuffering(!isReaderTransactionalQueue());
+        return tasklet;
+    }
+}
@@ -0,0 +1,176 @@
+package com.system.batch.killbatchsystem.chunk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.util.Assert;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/*
+ * 다음 아이템들을 백그라운드 스레드에서 미리 읽어 두는 Reader 데코레이터
+ * 청크 Step은 읽기 → 처리 → 쓰기를 차례로 하므로 Writer가 일하는 동안 DB는 논다.
+ * 이 Reader는 전용 스레드가 delegate를 계속 읽어 크기 bufferSize의 bounded 큐(ArrayBlockingQueue)에 채워 두고,
+ * read()는 큐에서 꺼내기만 한다. 큐가 차면 읽기 스레드가 기다리므로 메모리는 bufferSize만큼만 쓴다.
+ *
+ * 재시작 상태: delegate는 Step보다 앞서 읽고 있으므로 delegate의 현재 상태를 그대로 남기면 안 된다.
+ * 읽기 스레드가 snapshotInterval번째 아이템마다 delegate.update()로 "이 아이템까지 읽은 상태"를 찍어 아이템과 함께 넘기고,
+ * update()는 Step이 마지막으로 꺼내 간 상태만 남긴다. (read.count, start.after 등이 실제 처리 지점과 일치)
+ * snapshotInterval을 청크 크기와 맞추면 상태는 청크 경계에서만 찍히고, update()가 남기는 상태는 그 청크의 마지막 아이템 것이다.
+ * 청크 경계가 어긋나면(읽기 skip 등) 직전 스냅샷이 남으므로 재시작 시 그 뒤 몇 아이템을 다시 읽는다. (기본값 1은 매 아이템)
+ *
+ * - delegate는 읽기 스레드에서만 읽고 update 한다. Step 트랜잭션에 묶인 Reader(transacted JPA 등)에는 쓰지 않는다.
+ * - 아이템 순서는 그대로다. 단일 스레드 Step 전용이다.
+ * - delegate가 @StepScope 프록시여도 되도록 읽기 스레드에 StepExecution을 등록한다.
+ */
+@Slf4j
+public class PrefetchingItemReader<T> implements ItemStreamReader<T> {
+    private final ItemReader<? extends T> delegate;
+    private final int bufferSize;
+    private String name = "Prefetch";
+    private int snapshotInterval = 1;
+
+    private BlockingQueue<Prefetched<T>> buffer;
+    private Thread prefetcher;
+    private volatile boolean closing;
+    private ExecutionContext consumedState = new ExecutionContext();
+    private boolean exhausted;
+
+    public PrefetchingItemReader(ItemReader<? extends T> delegate, int bufferSize) {
+        Assert.notNull(delegate, "delegate must not be null");
+        Assert.isTrue(bufferSize > 0, "bufferSize must be greater than zero");
+        this.delegate = delegate;
+        this.bufferSize = bufferSize;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /*
+     * 💀 delegate 상태를 몇 아이템마다 찍을지. 청크 크기와 같게 둔다 💀
+     */
+    public void setSnapshotInterval(int snapshotInterval) {
+        Assert.isTrue(snapshotInterval > 0, "snapshotInterval must be greater than zero");
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        if (delegate instanceof ItemStream stream) {
+            stream.open(executionContext);
+        }
+        buffer = new ArrayBlockingQueue<>(bufferSize);
+        consumedState = snapshot();
+        exhausted = false;
+        closing = false;
+
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        StepExecution stepExecution = stepContext == null ? null : stepContext.getStepExecution();
+        prefetcher = new Thread(() -> prefetchLoop(stepExecution), "Prefetcher-" + name);
+        prefetcher.setDaemon(true);
+        prefetcher.start();
+    }
+
+    @Override
+    public T read() throws Exception {
+        if (exhausted) {
+            return null;
+        }
+        Prefetched<T> next = buffer.take();
+        if (next.failure() != null) {
+            exhausted = true;
+            if (next.failure() instanceof Exception exception) {
+                throw exception;
+            }
+            throw (Error) next.failure();
+        }
+        if (next.state() != null) {
+            consumedState = next.state();
+        }
+        if (next.item() == null) {
+            exhausted = true;
+        }
+        return next.item();
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        for (Map.Entry<String, Object> entry : consumedState.entrySet()) {
+            executionContext.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        closing = true;
+        Thread target = prefetcher;
+        if (target != null) {
+            target.interrupt();
+            try {
+                target.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        prefetcher = null;
+        buffer = null;
+        if (delegate instanceof ItemStream stream) {
+            stream.close();
+        }
+    }
+
+    /*
+     * 💀 snapshotInterval번째 아이템과 끝(null)에만 그 시점의 delegate 상태를 함께 큐에 넣는다. 끝이나 예외를 넣으면 멈춘다 💀
+     */
+    private void prefetchLoop(StepExecution stepExecution) {
+        if (stepExecution != null) {
+            StepSynchronizationManager.register(stepExecution);
+        }
+        try {
+            long read = 0;
+            while (!closing) {
+                Prefetched<T> next;
+                try {
+                    T item = delegate.read();
+                    boolean checkpoint = item == null || ++read % snapshotInterval == 0;
+                    next = new Prefetched<>(item, checkpoint ? snapshot() : null, null);
+                } catch (Throwable e) {
+                    next = new Prefetched<>(null, null, e);
+                }
+                buffer.put(next);
+                if (next.item() == null) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            if (!closing) {
+                log.warn("[{}] Prefetcher interrupted", name);
+            }
+        } finally {
+            if (stepExecution != null) {
+                StepSynchronizationManager.close();
+            }
+        }
+    }
+
+    private ExecutionContext snapshot() {
+        ExecutionContext state = new ExecutionContext();
+        if (delegate instanceof ItemStream stream) {
+            stream.update(state);
+        }
+        return state;
+    }
+
+    // 💀 state는 스냅샷을 찍은 아이템에만 있다 💀
+    private record Prefetched<T>(T item, ExecutionContext state, Throwable failure) {
+    }
+}
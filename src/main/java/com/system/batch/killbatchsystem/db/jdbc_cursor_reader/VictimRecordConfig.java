@@ -1,5 +1,8 @@
 package com.system.batch.killbatchsystem.db.jdbc_cursor_reader;
 
+import com.system.batch.killbatchsystem.partitional.ColumnRangePartitioner;
+import com.system.batch.killbatchsystem.partitional.ElasticPartitionHandler;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
@@ -9,11 +12,15 @@ import org.springframework.batch.core.Step;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
-import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.database.JdbcCursorItemReader;
 import org.springframework.batch.item.database.builder.JdbcCursorItemReaderBuilder;
+import org.springframework.batch.item.file.FlatFileItemWriter;
+import org.springframework.batch.item.file.builder.FlatFileItemWriterBuilder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.jdbc.core.DataClassRowMapper;
 import org.springframework.transaction.PlatformTransactionManager;
 
@@ -28,30 +35,60 @@ public class VictimRecordConfig {
     private final JobRepository jobRepository;
     private final PlatformTransactionManager transactionManager;
     private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
 
     @Bean
-    public Job processVictimJob() {
+    public Job processVictimJob(Step victimRecordManagerStep) {
         return new JobBuilder("victimRecordJob", jobRepository)
-                .start(processVictimStep())
+                .start(victimRecordManagerStep)
                 .build();
     }
 
+    // 💀 victims.id 구간마다 커서를 하나씩 열어 동시에 처리한다 💀
+    @Bean
+    public Step victimRecordManagerStep(ElasticPartitionHandler victimPartitionHandler) {
+        return new StepBuilder("victimRecordManagerStep", jobRepository)
+                .partitioner("victimRecordStep", victimIdRangePartitioner())
+                .partitionHandler(victimPartitionHandler)
+                .build();
+    }
+
+    @Bean
+    public ElasticPartitionHandler victimPartitionHandler(
+            @Value("${batch.partition.max-concurrency:16}") int maxConcurrency,
+            @Value("${batch.partition.virtual-threads:false}") boolean virtualThreads) {
+        ElasticPartitionHandler handler = new ElasticPartitionHandler("Victim-partition", maxConcurrency, virtualThreads, meterRegistry);
+        handler.setStep(processVictimStep());
+        handler.setGridSize(4);
+        return handler;
+    }
+
+    @Bean
+    public ColumnRangePartitioner victimIdRangePartitioner() {
+        ColumnRangePartitioner partitioner = new ColumnRangePartitioner(dataSource, "victims", "id");
+        partitioner.setWhereClause("status = 'TERMINATED'");
+        return partitioner;
+    }
+
     @Bean
     public Step processVictimStep() {
         return new StepBuilder("victimRecordStep", jobRepository)
                 .<Victim, Victim>chunk(5, transactionManager)
-                .reader(terminatedVictimReader())
-                .writer(victimWriter())
+                .reader(terminatedVictimReader(null, null))
+                .writer(victimWriter(null, null))
                 .build();
     }
 
     @Bean
-    public JdbcCursorItemReader<Victim> terminatedVictimReader() {
+    @StepScope
+    public JdbcCursorItemReader<Victim> terminatedVictimReader(
+            @Value("#{stepExecutionContext['minId']}") Long minId,
+            @Value("#{stepExecutionContext['maxId']}") Long maxId) {
         return new JdbcCursorItemReaderBuilder<Victim>()
                 .name("terminatedVictimReader")
                 .dataSource(dataSource)
-                .sql("SELECT * FROM victims WHERE status = ? AND terminated_at <= ?")
-                .queryArguments(List.of("TERMINATED", LocalDateTime.now()))
+                .sql("SELECT * FROM victims WHERE status = ? AND terminated_at <= ? AND id BETWEEN ? AND ?")
+                .queryArguments(List.of("TERMINATED", LocalDateTime.now(), minId, maxId))
 //                .beanRowMapper(Victim.class)  // 객체 변환 (BeanPropertyRowMapper)
 //                .rowMapper((rs, rowNum) -> { // 커스텀 rowMapper 람다 정의 가능
 //                    Victim victim = new Victim();
@@ -69,12 +106,17 @@ public class VictimRecordConfig {
     // dataRowMapper(레코드나 코트린객체) 추가하면 자동으로 매핑된다고함
 
     @Bean
-    public ItemWriter<Victim> victimWriter() {
-        return items -> {
-            for (Victim victim : items) {
-                log.info("{}", victim);
-            }
-        };
+    @StepScope
+    public FlatFileItemWriter<Victim> victimWriter(
+            @Value("#{jobParameters['outputPath']}") String outputPath,
+            @Value("#{stepExecutionContext['partitionNumber']}") Integer partitionNumber) {
+        // 💀 파티션마다 자기 파일에 쓴다 💀
+        return new FlatFileItemWriterBuilder<Victim>()
+                .name("victimWriter")
+                .resource(new FileSystemResource(outputPath + "/victims-%04d.csv".formatted(partitionNumber)))
+                .delimited()
+                .names("id", "name", "processId", "terminatedAt", "status")
+                .build();
     }
 
 //    @NoArgsConstructor
@@ -1,10 +1,15 @@
 package com.system.batch.killbatchsystem.db.jdbc_read_write;
 
+import com.system.batch.killbatchsystem.chunk.PrefetchingItemReader;
+import com.system.batch.killbatchsystem.partitional.ColumnRangePartitioner;
+import com.system.batch.killbatchsystem.partitional.ElasticPartitionHandler;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
@@ -14,6 +19,7 @@ import org.springframework.batch.item.database.JdbcPagingItemReader;
 import org.springframework.batch.item.database.Order;
 import org.springframework.batch.item.database.builder.JdbcBatchItemWriterBuilder;
 import org.springframework.batch.item.database.builder.JdbcPagingItemReaderBuilder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.transaction.PlatformTransactionManager;
@@ -25,42 +31,87 @@ import java.util.Map;
 //@Configuration
 @RequiredArgsConstructor
 public class OrderRecoveryJobConfig {
+    private static final String COMPROMISED_CONDITION = "(status = 'SHIPPED' and shipping_id is null) " +
+            "or (status = 'CANCELLED' and shipping_id is not null)";
+
     private final JobRepository jobRepository;
     private final PlatformTransactionManager transactionManager;
     private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
 
     @Bean
-    public Job orderRecoveryJob() {
+    public Job orderRecoveryJob(Step orderRecoveryManagerStep) {
         return new JobBuilder("orderRecoveryJob", jobRepository)
-                .start(orderRecoveryStep())
+                .start(orderRecoveryManagerStep)
                 .build();
     }
 
+    // 💀 orders.id 구간마다 파티션을 나눠 복구한다. 구간이 겹치지 않으니 UPDATE끼리 부딪히지 않는다 💀
+    @Bean
+    public Step orderRecoveryManagerStep(ElasticPartitionHandler orderPartitionHandler) {
+        return new StepBuilder("orderRecoveryManagerStep", jobRepository)
+                .partitioner("orderRecoveryStep", orderIdRangePartitioner())
+                .partitionHandler(orderPartitionHandler)
+                .build();
+    }
+
+    @Bean
+    public ElasticPartitionHandler orderPartitionHandler(
+            @Value("${batch.partition.max-concurrency:16}") int maxConcurrency,
+            @Value("${batch.partition.virtual-threads:false}") boolean virtualThreads) {
+        ElasticPartitionHandler handler = new ElasticPartitionHandler("Order-partition", maxConcurrency, virtualThreads, meterRegistry);
+        handler.setStep(orderRecoveryStep());
+        handler.setGridSize(4);
+        return handler;
+    }
+
+    @Bean
+    public ColumnRangePartitioner orderIdRangePartitioner() {
+        ColumnRangePartitioner partitioner = new ColumnRangePartitioner(dataSource, "orders", "id");
+        partitioner.setWhereClause(COMPROMISED_CONDITION);
+        partitioner.setBalanced(true);
+        return partitioner;
+    }
+
     @Bean
     public Step orderRecoveryStep() {
         return new StepBuilder("orderRecoveryStep", jobRepository)
                 .<HackedOrder, HackedOrder>chunk(10, transactionManager)
-                .reader(compromisedOrderReader())
+                .reader(prefetchingCompromisedOrderReader(null))
                 .processor(orderStatusProcessor())
                 .writer(orderStatusWriter())
                 .build();
     }
 
     @Bean
-    public JdbcPagingItemReader<HackedOrder> compromisedOrderReader() {
+    @StepScope
+    public JdbcPagingItemReader<HackedOrder> compromisedOrderReader(
+            @Value("#{stepExecutionContext['minId']}") Long minId,
+            @Value("#{stepExecutionContext['maxId']}") Long maxId) {
         return new JdbcPagingItemReaderBuilder<HackedOrder>()
                 .name("compromisedOrderReader")
                 .dataSource(dataSource)
                 .pageSize(10)
                 .selectClause("SELECT id, customer_id, order_datetime, status, shipping_id")
                 .fromClause("FROM orders")
-                .whereClause("WHERE (status = 'SHIPPED' and shipping_id is null) " +
-                        "or (status = 'CANCELLED' and shipping_id is not null)")
+                .whereClause("WHERE (" + COMPROMISED_CONDITION + ") AND id BETWEEN :minId AND :maxId")
+                .parameterValues(Map.of("minId", minId, "maxId", maxId))
                 .sortKeys(Map.of("id", Order.ASCENDING))
                 .beanRowMapper(HackedOrder.class)
                 .build();
     }
 
+    @Bean
+    @StepScope
+    public PrefetchingItemReader<HackedOrder> prefetchingCompromisedOrderReader(
+            JdbcPagingItemReader<HackedOrder> compromisedOrderReader) {
+        // 💀 주문 상태를 업데이트하는 동안 다음 페이지를 미리 읽어 둔다 💀
+        PrefetchingItemReader<HackedOrder> reader = new PrefetchingItemReader<>(compromisedOrderReader, 30);
+        reader.setName("compromisedOrderReader");
+        reader.setSnapshotInterval(10); // 💀 청크 크기. 청크 경계에서만 delegate 상태를 찍는다
+        return reader;
+    }
+
     @Bean
     public ItemProcessor<HackedOrder, HackedOrder> orderStatusProcessor() {
         return order -> {
@@ -0,0 +1,300 @@
+package com.system.batch.killbatchsystem.jpa.paging;
+
+import com.system.batch.killbatchsystem.multi_thread_step.KeyRangeCheckpointTracker;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Parameter;
+import jakarta.persistence.TypedQuery;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/*
+ * 멀티스레드 Step용 keyset 페이징 JPA Reader
+ * JpaPagingItemReader는 OFFSET 페이징이라 뒤 페이지일수록 느려지고, doRead()가 synchronized라 스레드가 늘어도 읽기는 한 줄로 선다.
+ *
+ * 1. 다음 페이지의 id들만 "SELECT id ... WHERE id > :lastId ORDER BY id LIMIT pageSize"로 구해
+ *    그 마지막 id로 (lastId, upperId] 구간을 예약한다. 락은 이 id 조회 동안만 잡는다. (OFFSET 없음)
+ * 2. 예약한 구간의 엔티티는 각 스레드가 자기 EntityManager로 락 없이 동시에 읽는다.
+ * 3. 읽은 아이템은 공유 큐에 넣고, 어느 스레드든 큐에서 꺼내 간다.
+ *
+ * 구간이 id 값으로 정해지므로 실행 도중 행이 추가/삭제돼도 OFFSET처럼 밀리거나 건너뛰는 행이 없다.
+ * select/join/groupBy 절을 지정하면 엔티티 대신 집계 프로젝션을 같은 방식으로 읽을 수 있다. (페이지 = 기준 엔티티 id 구간)
+ * 스스로는 재시작 상태를 저장하지 않는다. 재시작이 필요하면 KeyRangeCheckpointTracker를 지정한다.
+ * (예약한 구간을 tracker에 알리고, 재시작 시 tracker의 watermark 다음 키부터, 이미 써진 키는 건너뛰고 읽는다)
+ * 반환되는 엔티티는 detached 상태다. (transacted(false)와 같은 동작)
+ */
+@Slf4j
+public class KeysetJpaItemReader<T> implements ItemReader<T>, InitializingBean {
+    private final EntityManagerFactory entityManagerFactory;
+    private final Class<T> resultClass;
+    private final String alias;
+    private final String fromClause;
+    private String selectClause;
+    private String joinClause;
+    private String whereClause;
+    private String groupByClause;
+    private String idProperty = "id";
+    private Map<String, Object> parameterValues = Collections.emptyMap();
+    private int pageSize = 100;
+
+    private final ReentrantLock cursorLock = new ReentrantLock();
+    private final Queue<T> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pagesInFlight = new AtomicInteger();
+    // 💀 페이지 하나를 다 읽을 때마다 신호를 보낸다. 마지막 페이지를 기다리는 스레드가 깨어난다 💀
+    private final ReentrantLock pageLock = new ReentrantLock();
+    private final Condition pageFinished = pageLock.newCondition();
+    private KeyRangeCheckpointTracker checkpointTracker;
+    private Function<? super T, Long> keyFunction;
+
+    private volatile Long lastId;
+    private volatile boolean started;
+    private volatile boolean exhausted;
+
+    /*
+     * 💀 fromClause 예: "Human h", alias 예: "h" 💀
+     */
+    public KeysetJpaItemReader(EntityManagerFactory entityManagerFactory, Class<T> resultClass,
+                               String fromClause, String alias) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.resultClass = resultClass;
+        this.fromClause = fromClause;
+        this.alias = alias;
+        this.selectClause = alias;
+    }
+
+    /*
+     * 💀 엔티티 대신 생성자 표현식(SELECT new ...) 같은 프로젝션을 읽을 때 지정한다 💀
+     */
+    public void setSelectClause(String selectClause) {
+        this.selectClause = selectClause;
+    }
+
+    /*
+     * 💀 페이지 조회에만 붙는 JOIN. 페이지 경계(id) 조회는 JOIN 없이 fromClause만으로 구한다 💀
+     */
+    public void setJoinClause(String joinClause) {
+        this.joinClause = joinClause;
+    }
+
+    public void setGroupByClause(String groupByClause) {
+        this.groupByClause = groupByClause;
+    }
+
+    public void setWhereClause(String whereClause) {
+        this.whereClause = whereClause;
+    }
+
+    public void setIdProperty(String idProperty) {
+        this.idProperty = idProperty;
+    }
+
+    public void setParameterValues(Map<String, Object> parameterValues) {
+        this.parameterValues = parameterValues;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public void setCheckpointTracker(KeyRangeCheckpointTracker checkpointTracker, Function<? super T, Long> keyFunction) {
+        this.checkpointTracker = checkpointTracker;
+        this.keyFunction = keyFunction;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(entityManagerFactory, "entityManagerFactory must not be null");
+        Assert.hasText(fromClause, "fromClause must not be empty");
+        Assert.hasText(alias, "alias must not be empty");
+        Assert.hasText(selectClause, "selectClause must not be empty");
+        Assert.isTrue(pageSize > 0, "pageSize must be greater than zero");
+    }
+
+    @Override
+    public T read() throws Exception {
+        while (true) {
+            T item = buffer.poll();
+            if (item != null) {
+                return item;
+            }
+
+            Long[] range = claimNextRange();
+            if (range != null) {
+                loadRange(range[0], range[1]);
+                continue;
+            }
+
+            // 💀 다른 스레드가 아직 마지막 페이지를 읽는 중이면 그 아이템을 놓치지 않도록 기다린다 💀
+            if (!awaitPagesInFlight()) {
+                return null;
+            }
+        }
+    }
+
+    /*
+     * 💀 읽는 중인 페이지가 끝나거나 큐에 아이템이 들어올 때까지 기다린다. 더 올 아이템이 없으면 false 💀
+     */
+    private boolean awaitPagesInFlight() throws InterruptedException {
+        pageLock.lock();
+        try {
+            while (pagesInFlight.get() > 0 && buffer.isEmpty()) {
+                pageFinished.await();
+            }
+            return !buffer.isEmpty();
+        } finally {
+            pageLock.unlock();
+        }
+    }
+
+    private void finishPage() {
+        pageLock.lock();
+        try {
+            pagesInFlight.decrementAndGet();
+            pageFinished.signalAll();
+        } finally {
+            pageLock.unlock();
+        }
+    }
+
+    /*
+     * 💀 (lower, upper] 구간을 예약한다. upper가 null이면 마지막 페이지. 더 읽을 게 없으면 null 💀
+     */
+    private Long[] claimNextRange() {
+        if (exhausted) {
+            return null;
+        }
+        cursorLock.lock();
+        try {
+            if (exhausted) {
+                return null;
+            }
+            // 💀 exhausted를 보기 전에 먼저 올려 둬야 다른 스레드가 "읽는 중인 페이지 없음"으로 착각하지 않는다 💀
+            pagesInFlight.incrementAndGet();
+            if (!started) {
+                started = true;
+                lastId = checkpointTracker != null ? checkpointTracker.getResumeAfter() : null;
+            }
+            Long lower = lastId;
+            Long upper;
+            try {
+                upper = findPageUpperId(lower);
+            } catch (RuntimeException e) {
+                finishPage();
+                throw e;
+            }
+            if (upper == null) {
+                exhausted = true;
+            } else {
+                lastId = upper;
+            }
+            if (checkpointTracker != null) {
+                checkpointTracker.pageClaimed(upper);
+            }
+            return new Long[]{lower, upper};
+        } finally {
+            cursorLock.unlock();
+        }
+    }
+
+    /*
+     * 💀 lower 다음 id를 pageSize개까지 읽어 마지막 id를 돌려준다. pageSize개가 안 되면 마지막 페이지(null) 💀
+     */
+    private Long findPageUpperId(Long lower) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            TypedQuery<Long> query = entityManager.createQuery(
+                    "SELECT " + id() + " FROM " + fromClause + where(lower, null) + " ORDER BY " + id(), Long.class);
+            bind(query, lower, null);
+            List<Long> ids = query.setMaxResults(pageSize).getResultList();
+            return ids.size() < pageSize ? null : ids.get(ids.size() - 1);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private void loadRange(Long lower, Long upper) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            TypedQuery<T> query = entityManager.createQuery(
+                    "SELECT " + selectClause + " FROM " + fromClause
+                            + (joinClause != null ? " " + joinClause : "")
+                            + where(lower, upper)
+                            + (groupByClause != null ? " GROUP BY " + groupByClause : "")
+                            + " ORDER BY " + id(), resultClass);
+            bind(query, lower, upper);
+            List<T> page = query.getResultList();
+            if (checkpointTracker != null) {
+                page = track(upper, page);
+            }
+            buffer.addAll(page);
+            log.debug("Loaded {} items in ({}, {}]", page.size(), lower, upper);
+        } finally {
+            entityManager.close();
+            finishPage();
+        }
+    }
+
+    /*
+     * 💀 지난 실행에서 이미 써진 키는 빼고, 남은 키를 큐에 넣기 전에 tracker에 알린다 💀
+     */
+    private List<T> track(Long upper, List<T> page) {
+        List<T> remaining = new ArrayList<>(page.size());
+        List<Long> keys = new ArrayList<>(page.size());
+        for (T item : page) {
+            Long key = keyFunction.apply(item);
+            if (!checkpointTracker.isAlreadyWritten(key)) {
+                remaining.add(item);
+                keys.add(key);
+            }
+        }
+        checkpointTracker.pageLoaded(upper, keys);
+        return remaining;
+    }
+
+    private String where(Long lower, Long upper) {
+        StringBuilder where = new StringBuilder(" WHERE ");
+        where.append(whereClause != null ? "(" + whereClause + ")" : "1 = 1");
+        if (lower != null) {
+            where.append(" AND ").append(id()).append(" > :keysetLower");
+        }
+        if (upper != null) {
+            where.append(" AND ").append(id()).append(" <= :keysetUpper");
+        }
+        return where.toString();
+    }
+
+    /*
+     * 💀 쿼리에 실제로 있는 파라미터만 묶는다. 경계 조회에는 joinClause가 없으므로 JOIN에만 쓰인 파라미터는 빠진다 💀
+     */
+    private void bind(TypedQuery<?> query, Long lower, Long upper) {
+        for (Parameter<?> parameter : query.getParameters()) {
+            String name = parameter.getName();
+            if (name != null && parameterValues.containsKey(name)) {
+                query.setParameter(name, parameterValues.get(name));
+            }
+        }
+        if (lower != null) {
+            query.setParameter("keysetLower", lower);
+        }
+        if (upper != null) {
+            query.setParameter("keysetUpper", upper);
+        }
+    }
+
+    private String id() {
+        return alias + "." + idProperty;
+    }
+}
@@ -0,0 +1,103 @@
+package com.system.batch.killbatchsystem.mongodb.write;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.WriteConcern;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.InsertOneModel;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * MongoItemWriter(Mode.INSERT)는 ordered insert라서 중복 _id 하나가 청크 전체를 실패시키고,
+ * 느린 문서 하나가 뒤따르는 문서들을 붙잡는다.
+ * 이 Writer는 unordered bulkWrite로 subBatchSize개씩 밀어 넣고,
+ * 중복 키(E11000) 오류는 "이미 써진 문서"로 간주해 무시한다.
+ * 그래서 실패한 파티션을 다시 돌려도 이미 들어간 문서 때문에 멈추지 않는다.
+ *
+ * 주의: 중복 키 외의 오류가 섞여 있으면 그대로 예외를 던진다.
+ */
+@Slf4j
+public class UnorderedBulkMongoItemWriter<T> implements ItemWriter<T>, InitializingBean {
+    private static final BulkWriteOptions UNORDERED = new BulkWriteOptions().ordered(false);
+
+    private final MongoTemplate mongoTemplate;
+    private final Class<T> entityClass;
+    private String collection;
+    private int subBatchSize = 1000;
+    private WriteConcern writeConcern = WriteConcern.ACKNOWLEDGED;
+
+    public UnorderedBulkMongoItemWriter(MongoTemplate mongoTemplate, Class<T> entityClass) {
+        this.mongoTemplate = mongoTemplate;
+        this.entityClass = entityClass;
+    }
+
+    public void setCollection(String collection) {
+        this.collection = collection;
+    }
+
+    public void setSubBatchSize(int subBatchSize) {
+        this.subBatchSize = subBatchSize;
+    }
+
+    public void setWriteConcern(WriteConcern writeConcern) {
+        this.writeConcern = writeConcern;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(mongoTemplate, "mongoTemplate must not be null");
+        Assert.notNull(entityClass, "entityClass must not be null");
+        Assert.isTrue(subBatchSize > 0, "subBatchSize must be greater than zero");
+        Assert.notNull(writeConcern, "writeConcern must not be null");
+        if (collection == null) {
+            collection = mongoTemplate.getCollectionName(entityClass);
+        }
+    }
+
+    @Override
+    public void write(Chunk<? extends T> chunk) {
+        MongoCollection<Document> target = mongoTemplate.getCollection(collection)
+                .withWriteConcern(writeConcern);
+
+        List<InsertOneModel<Document>> batch = new ArrayList<>(subBatchSize);
+        for (T item : chunk) {
+            Document document = new Document();
+            mongoTemplate.getConverter().write(item, document);
+            batch.add(new InsertOneModel<>(document));
+
+            if (batch.size() == subBatchSize) {
+                flush(target, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(target, batch);
+        }
+    }
+
+    private void flush(MongoCollection<Document> target, List<InsertOneModel<Document>> batch) {
+        try {
+            target.bulkWrite(batch, UNORDERED);
+        } catch (MongoBulkWriteException e) {
+            List<BulkWriteError> errors = e.getWriteErrors();
+            boolean duplicatesOnly = e.getWriteConcernError() == null && errors.stream()
+                    .allMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY);
+            if (!duplicatesOnly) {
+                throw e;
+            }
+            // 💀 재시작 시 이미 들어간 문서다. 나머지는 unordered라 전부 써졌다 💀
+            log.info("Skipped {} already-written documents in {}", errors.size(), collection);
+        }
+    }
+}
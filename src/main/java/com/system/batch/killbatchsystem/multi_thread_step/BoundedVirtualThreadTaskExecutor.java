@@ -0,0 +1,72 @@
+package com.system.batch.killbatchsystem.multi_thread_step;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.Semaphore;
+
+/*
+ * 작업마다 가상 스레드를 새로 띄우고, 동시에 도는 작업 수는 풀 크기 대신 Semaphore로 제한하는 TaskExecutor
+ * JDBC/Redis/Mongo 응답을 기다리는 시간이 대부분인 청크/파티션용이다. 기다리는 동안 캐리어 스레드를 놓아주므로
+ * 플랫폼 스레드 풀처럼 "대기 중인 스레드 수 = 풀 크기" 한계에 묶이지 않는다.
+ *
+ * 허가가 없으면 execute()를 호출한 스레드가 기다린다. (큐에 무한정 쌓아 두지 않는다)
+ * 가상 스레드는 Java 21부터 쓸 수 있다. isSupported()로 확인하고, 아니면 기존 스레드 풀을 써야 한다.
+ */
+public class BoundedVirtualThreadTaskExecutor implements TaskExecutor {
+    private final VirtualThreadTaskExecutor delegate;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private TaskDecorator taskDecorator;
+
+    public BoundedVirtualThreadTaskExecutor(String threadNamePrefix, int maxConcurrency) {
+        if (!isSupported()) {
+            throw new IllegalStateException("Virtual threads require Java 21+, current: " + Runtime.version().feature());
+        }
+        this.delegate = new VirtualThreadTaskExecutor(threadNamePrefix);
+        this.permits = new Semaphore(maxConcurrency);
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public static boolean isSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    public void setTaskDecorator(TaskDecorator taskDecorator) {
+        this.taskDecorator = taskDecorator;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        Runnable decorated = taskDecorator != null ? taskDecorator.decorate(task) : task;
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TaskRejectedException("Interrupted while waiting for a permit", e);
+        }
+
+        try {
+            delegate.execute(() -> {
+                try {
+                    decorated.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+}
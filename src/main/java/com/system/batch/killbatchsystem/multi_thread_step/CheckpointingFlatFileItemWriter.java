@@ -0,0 +1,256 @@
+package com.system.batch.killbatchsystem.multi_thread_step;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.file.FlatFileHeaderCallback;
+import org.springframework.batch.item.file.transform.LineAggregator;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/*
+ * 멀티스레드 Step에서 여러 스레드가 함께 쓰는, 재시작 가능한 FlatFile Writer
+ * FlatFileItemWriter는 모든 스레드가 내부 Writer 하나를 두고 줄을 서고, 청크마다 flush 한다.
+ *
+ * 1. 각 청크 스레드는 자기 청크를 바이트로 만들어 두기만 하고,
+ *    트랜잭션이 커밋된 뒤에야 큐(LinkedBlockingQueue)에 넣는다. 롤백된 청크는 디스크에 닿지 않는다.
+ * 2. 전용 flusher 스레드 하나가 큐에 쌓인 청크들을 bufferSize까지 모아 한 번에 쓰고, force 한 뒤
+ *    KeyRangeCheckpointTracker에 "여기까지 디스크에 내려갔다"를 찍는다. (여러 청크가 fsync 한 번을 나눠 쓴다)
+ *    큐가 비어 있으면 take()에서 잠들고, close()가 넣는 END 청크를 받으면 남은 청크를 다 쓰고 끝난다.
+ * 3. update()는 마지막으로 디스크에 내려간 상태(watermark 키, 먼저 써진 키, 파일 길이)만 ExecutionContext에 남긴다.
+ *    커밋됐지만 아직 flush 되지 않은 청크는 체크포인트에 없으므로, 그 사이에 죽으면 재시작 때 다시 처리된다.
+ * 4. 재시작하면 파일을 체크포인트의 길이로 잘라내고 이어 쓴다. 헤더는 처음 실행할 때만 쓴다.
+ */
+@Slf4j
+public class CheckpointingFlatFileItemWriter<T> implements ItemStreamWriter<T> {
+    private static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+    // 💀 flusher 종료 신호. 이 앞에 들어온 청크까지 쓰고 끝낸다 💀
+    private static final PendingChunk END = new PendingChunk(new byte[0], List.of());
+
+    private final Path outputFile;
+    private final LineAggregator<T> lineAggregator;
+    private final Function<? super T, Long> keyFunction;
+    private final KeyRangeCheckpointTracker tracker;
+    private FlatFileHeaderCallback headerCallback;
+    private String lineSeparator = System.lineSeparator();
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+    private final BlockingQueue<PendingChunk> queue = new LinkedBlockingQueue<>();
+    private final AtomicReference<Throwable> flushFailure = new AtomicReference<>();
+    private FileChannel channel;
+    private Thread flusher;
+
+    public CheckpointingFlatFileItemWriter(Path outputFile, LineAggregator<T> lineAggregator,
+                                           Function<? super T, Long> keyFunction,
+                                           KeyRangeCheckpointTracker tracker) {
+        Assert.notNull(outputFile, "outputFile must not be null");
+        Assert.notNull(lineAggregator, "lineAggregator must not be null");
+        Assert.notNull(keyFunction, "keyFunction must not be null");
+        Assert.notNull(tracker, "tracker must not be null");
+        this.outputFile = outputFile;
+        this.lineAggregator = lineAggregator;
+        this.keyFunction = keyFunction;
+        this.tracker = tracker;
+    }
+
+    public void setHeaderCallback(FlatFileHeaderCallback headerCallback) {
+        this.headerCallback = headerCallback;
+    }
+
+    public void setLineSeparator(String lineSeparator) {
+        this.lineSeparator = lineSeparator;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        tracker.open(executionContext);
+        queue.clear();
+        flushFailure.set(null);
+        try {
+            channel = FileChannel.open(outputFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (tracker.isRestarted()) {
+                // 💀 마지막 체크포인트 이후에 붙은 꼬리는 재처리되므로 버린다 💀
+                long offset = tracker.getOutputOffset();
+                channel.truncate(offset);
+                channel.position(offset);
+            } else {
+                channel.truncate(0);
+                ByteBuffer header = ByteBuffer.wrap(header().getBytes(StandardCharsets.UTF_8));
+                tracker.append(List.of(), () -> {
+                    writeFully(new ByteBuffer[]{header});
+                    return channel.position();
+                });
+                channel.force(false);
+            }
+            tracker.markDurable();
+        } catch (IOException e) {
+            throw new ItemStreamException("출력 파일 열기 실패: " + outputFile, e);
+        }
+
+        // 💀 tracker가 step scope 프록시여도 flusher 스레드에서 같은 인스턴스를 보도록 StepExecution을 넘긴다 💀
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        StepExecution stepExecution = stepContext != null ? stepContext.getStepExecution() : null;
+        flusher = new Thread(() -> flushLoop(stepExecution), "FileFlusher-" + outputFile.getFileName());
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public void write(Chunk<? extends T> chunk) throws Exception {
+        rethrowFlushFailure();
+
+        StringBuilder lines = new StringBuilder();
+        List<Long> keys = new ArrayList<>(chunk.size());
+        for (T item : chunk) {
+            lines.append(lineAggregator.aggregate(item)).append(lineSeparator);
+            keys.add(keyFunction.apply(item));
+        }
+        PendingChunk pending = new PendingChunk(lines.toString().getBytes(StandardCharsets.UTF_8), keys);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(pending);
+            return;
+        }
+        // 💀 커밋된 청크만 큐에 들어간다. 롤백되면 만들어 둔 바이트는 그냥 버려진다 💀
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    enqueue(pending);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        tracker.update(executionContext);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            if (flusher != null) {
+                queue.offer(END);
+                flusher.join();
+            }
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ItemStreamException("출력 파일 flush 대기 중 인터럽트: " + outputFile, e);
+        } catch (IOException e) {
+            throw new ItemStreamException("출력 파일 닫기 실패: " + outputFile, e);
+        } finally {
+            channel = null;
+            flusher = null;
+        }
+        rethrowFlushFailure();
+    }
+
+    private void enqueue(PendingChunk pending) {
+        queue.offer(pending);
+    }
+
+    /*
+     * 💀 청크가 들어올 때까지 take()에서 기다렸다가 bufferSize 단위로 모아 쓰고, 한 묶음마다 force 후 체크포인트를 찍는다 💀
+     */
+    private void flushLoop(StepExecution stepExecution) {
+        if (stepExecution != null) {
+            StepSynchronizationManager.register(stepExecution);
+        }
+        try {
+            boolean end = false;
+            while (!end) {
+                PendingChunk next = queue.take();
+                if (next == END) {
+                    return;
+                }
+
+                List<ByteBuffer> buffers = new ArrayList<>();
+                List<Long> keys = new ArrayList<>();
+                long bytes = 0;
+                while (next != null) {
+                    if (next == END) {
+                        end = true;
+                        break;
+                    }
+                    buffers.add(ByteBuffer.wrap(next.bytes()));
+                    keys.addAll(next.keys());
+                    bytes += next.bytes().length;
+                    next = bytes < bufferSize ? queue.poll() : null;
+                }
+
+                ByteBuffer[] batch = buffers.toArray(new ByteBuffer[0]);
+                tracker.append(keys, () -> {
+                    writeFully(batch);
+                    return channel.position();
+                });
+                channel.force(false);
+                tracker.markDurable();
+            }
+        } catch (Throwable e) {
+            log.error("Flush to {} failed", outputFile, e);
+            flushFailure.compareAndSet(null, e);
+        } finally {
+            if (stepExecution != null) {
+                StepSynchronizationManager.close();
+            }
+        }
+    }
+
+    private void writeFully(ByteBuffer[] buffers) throws IOException {
+        long remaining = 0;
+        for (ByteBuffer buffer : buffers) {
+            remaining += buffer.remaining();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+    }
+
+    private void rethrowFlushFailure() {
+        Throwable failure = flushFailure.get();
+        if (failure != null) {
+            throw new ItemStreamException("출력 파일 쓰기 실패: " + outputFile, failure);
+        }
+    }
+
+    private String header() throws IOException {
+        if (headerCallback == null) {
+            return "";
+        }
+        StringWriter header = new StringWriter();
+        headerCallback.writeHeader(header);
+        return header + lineSeparator;
+    }
+
+    private record PendingChunk(byte[] bytes, List<Long> keys) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.system.batch.killbatchsystem.multi_thread_step;
+
+/*
+ * 💀 Human 한 명의 활동 집계 결과 (humanId, name, SUM(severity_index), COUNT(*)) 💀
+ * JPQL 생성자 표현식으로 바로 만들어지므로 Human/Activity 엔티티 그래프를 메모리에 올리지 않는다.
+ */
+public record HumanThreatSummary(
+        Long humanId,
+        String humanName,
+        Double totalSeverityIndex,
+        Long activityCount
+) {
+}
@@ -0,0 +1,199 @@
+package com.system.batch.killbatchsystem.multi_thread_step;
+
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/*
+ * 멀티스레드 Step을 재시작 가능하게 만드는 체크포인트 추적기
+ * 멀티스레드 Step에서는 스레드마다 청크가 끝나는 순서가 뒤섞이므로 "몇 번째 아이템까지 읽었다"는 read.count를 믿을 수 없다.
+ * 대신 Reader가 예약한 키 구간(페이지)마다 어떤 키가 파일에 써졌는지 기록하고,
+ * 처음부터 빈틈없이 다 써진 마지막 페이지의 상한 키(watermark)를 체크포인트로 남긴다.
+ *
+ * ExecutionContext에 남기는 값 (디스크에 내려간 시점에 한 락 안에서 함께 찍으므로 서로 어긋나지 않는다)
+ * - checkpoint.lastKey     : 이 키까지는 빠짐없이 써졌다. 재시작하면 이 키 다음부터 읽는다.
+ * - checkpoint.writtenKeys : watermark 뒤에서 먼저 써진 키들. 재시작 시 Reader가 건너뛴다.
+ * - checkpoint.outputOffset: 위 두 값에 해당하는 출력 파일 길이. 재시작 시 파일을 이 길이로 잘라낸다.
+ *
+ * 출력 파일이 유일한 부작용이라는 전제로 "파일에 append된 키"를 처리 완료로 본다.
+ */
+public class KeyRangeCheckpointTracker {
+    private static final String LAST_KEY = "checkpoint.lastKey";
+    private static final String WRITTEN_KEYS = "checkpoint.writtenKeys";
+    private static final String OUTPUT_OFFSET = "checkpoint.outputOffset";
+    private static final long LAST_PAGE = Long.MAX_VALUE;
+
+    // 💀 페이지 상한 키 → 페이지. 첫 번째 엔트리가 watermark 바로 다음 페이지다 💀
+    private final NavigableMap<Long, Page> pages = new TreeMap<>();
+    private final Set<Long> writtenBeyondWatermark = new HashSet<>();
+    private Set<Long> restoredKeys = Set.of();
+    private Long watermark;
+    private long outputOffset;
+    private boolean restarted;
+    private volatile Snapshot durable;
+
+    public synchronized void open(ExecutionContext executionContext) {
+        pages.clear();
+        writtenBeyondWatermark.clear();
+        durable = null;
+        restarted = executionContext.containsKey(OUTPUT_OFFSET);
+        if (!restarted) {
+            watermark = null;
+            restoredKeys = Set.of();
+            outputOffset = 0;
+            return;
+        }
+
+        watermark = executionContext.containsKey(LAST_KEY) ? executionContext.getLong(LAST_KEY) : null;
+        outputOffset = executionContext.getLong(OUTPUT_OFFSET);
+        @SuppressWarnings("unchecked")
+        List<Long> written = (List<Long>) executionContext.get(WRITTEN_KEYS);
+        restoredKeys = written == null ? Set.of() : Set.copyOf(written);
+    }
+
+    /*
+     * 💀 출력이 디스크에 내려간 직후에 호출한다. update()는 마지막으로 찍힌 이 상태만 남긴다 💀
+     * 그래야 재시작 시 잘라낼 길이가 실제 파일보다 길어지지 않는다.
+     */
+    public synchronized void markDurable() {
+        ArrayList<Long> written = new ArrayList<>(writtenBeyondWatermark);
+        for (Long key : restoredKeys) {
+            if (watermark == null || key > watermark) {
+                written.add(key);
+            }
+        }
+        durable = new Snapshot(watermark, written, outputOffset);
+    }
+
+    public void update(ExecutionContext executionContext) {
+        Snapshot snapshot = durable;
+        if (snapshot == null) {
+            return;
+        }
+        if (snapshot.lastKey() != null) {
+            executionContext.putLong(LAST_KEY, snapshot.lastKey());
+        }
+        executionContext.put(WRITTEN_KEYS, snapshot.writtenKeys());
+        executionContext.putLong(OUTPUT_OFFSET, snapshot.outputOffset());
+    }
+
+    public boolean isRestarted() {
+        return restarted;
+    }
+
+    public synchronized long getOutputOffset() {
+        return outputOffset;
+    }
+
+    /*
+     * 💀 Reader가 읽기 시작할 키 (이 키보다 큰 것부터). 처음 실행이면 null 💀
+     */
+    public synchronized Long getResumeAfter() {
+        return watermark;
+    }
+
+    /*
+     * 💀 지난 실행에서 watermark 뒤에 먼저 써진 키인지. Reader가 다시 넘기지 않도록 거른다 💀
+     */
+    public boolean isAlreadyWritten(Long key) {
+        return restoredKeys.contains(key);
+    }
+
+    /*
+     * 💀 Reader가 (직전 상한, upper] 구간을 예약했다. upper가 null이면 마지막 페이지 💀
+     * 예약 순서대로 등록해야 아직 안 읽힌 앞 페이지를 건너뛰고 watermark가 올라가지 않는다.
+     */
+    public synchronized void pageClaimed(Long upper) {
+        pages.put(upper == null ? LAST_PAGE : upper, new Page());
+    }
+
+    /*
+     * 💀 예약한 구간에서 실제로 넘길 키 목록. 아이템을 큐에 넣기 전에 호출해야 한다 💀
+     */
+    public synchronized void pageLoaded(Long upper, Collection<Long> keys) {
+        Page page = pages.get(upper == null ? LAST_PAGE : upper);
+        page.remaining = new HashSet<>(keys);
+        advance();
+    }
+
+    /*
+     * 💀 keys에 해당하는 내용을 출력에 붙이고, 그 뒤의 출력 길이를 기록한다 💀
+     */
+    public synchronized void append(Collection<Long> keys, OutputAppender appender) throws IOException {
+        outputOffset = appender.append();
+        for (Long key : keys) {
+            markWritten(key);
+        }
+        advance();
+    }
+
+    /*
+     * 💀 Processor가 걸러낸(null) 아이템도 처리 완료로 쳐야 그 페이지가 끝난다 💀
+     */
+    public synchronized void filtered(Long key) {
+        markWritten(key);
+        advance();
+    }
+
+    public static <I> ItemProcessListener<I, Object> filteredItemListener(KeyRangeCheckpointTracker tracker,
+                                                                         Function<? super I, Long> keyFunction) {
+        return new ItemProcessListener<>() {
+            @Override
+            public void afterProcess(I item, Object result) {
+                if (result == null) {
+                    tracker.filtered(keyFunction.apply(item));
+                }
+            }
+        };
+    }
+
+    private void markWritten(Long key) {
+        Map.Entry<Long, Page> entry = pages.ceilingEntry(key);
+        if (entry == null || entry.getValue().remaining == null) {
+            throw new IllegalStateException("Key " + key + " was written before its page was registered");
+        }
+        Page page = entry.getValue();
+        page.remaining.remove(key);
+        page.written.add(key);
+        writtenBeyondWatermark.add(key);
+    }
+
+    private void advance() {
+        while (!pages.isEmpty()) {
+            Map.Entry<Long, Page> first = pages.firstEntry();
+            Page page = first.getValue();
+            if (page.remaining == null || !page.remaining.isEmpty()) {
+                return;
+            }
+            watermark = first.getKey();
+            page.written.forEach(writtenBeyondWatermark::remove);
+            pages.pollFirstEntry();
+        }
+    }
+
+    private static final class Page {
+        private Set<Long> remaining;
+        private final List<Long> written = new ArrayList<>();
+    }
+
+    @FunctionalInterface
+    public interface OutputAppender {
+        /*
+         * 💀 출력에 쓰고 난 뒤의 출력 길이를 돌려준다 💀
+         */
+        long append() throws IOException;
+    }
+
+    private record Snapshot(Long lastKey, ArrayList<Long> writtenKeys, long outputOffset) {
+    }
+}
@@ -1,5 +1,12 @@
 package com.system.batch.killbatchsystem.multi_thread_step;
 
+import com.system.batch.killbatchsystem.chunk.BatchItemProcessor;
+import com.system.batch.killbatchsystem.chunk.BatchProcessingStepBuilder;
+import com.system.batch.killbatchsystem.jpa.paging.KeysetJpaItemReader;
+import com.system.batch.killbatchsystem.partitional.ColumnRangePartitioner;
+import com.system.batch.killbatchsystem.partitional.ElasticPartitionHandler;
+import com.system.batch.killbatchsystem.tracing.SampledItemTraceListener;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityManagerFactory;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -13,58 +20,156 @@ import org.springframework.batch.core.launch.support.RunIdIncrementer;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.item.ItemProcessor;
-import org.springframework.batch.item.database.JpaPagingItemReader;
-import org.springframework.batch.item.database.builder.JpaPagingItemReaderBuilder;
-import org.springframework.batch.item.file.FlatFileItemWriter;
-import org.springframework.batch.item.file.builder.FlatFileItemWriterBuilder;
+import org.springframework.batch.item.file.transform.BeanWrapperFieldExtractor;
+import org.springframework.batch.item.file.transform.DelimitedLineAggregator;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
+import javax.sql.DataSource;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 @Configuration
 @Slf4j
 @RequiredArgsConstructor
 public class T800ProtocolConfig {
+    // 💀 fromDate 이후 활동이 있는 생존자 💀
+    private static final String THREAT_CONDITION =
+            "h.terminated = FALSE AND EXISTS (SELECT 1 FROM Activity a WHERE a.human = h AND a.detectionDate > :fromDate)";
+
     private final JobRepository jobRepository;
     private final PlatformTransactionManager transactionManager;
     private final EntityManagerFactory entityManagerFactory;
+    private final DataSource dataSource;
 
     @Bean
-    public Job humanThreatAnalysisJob(Step threatAnalysisStep) {
+    public Job humanThreatAnalysisJob(
+            Step threatAnalysisStep,
+            Step threatProjectionStep,
+            Step threatPartitionManagerStep,
+            @Value("${batch.t800.reader-mode:entity}") String readerMode) {
+        // 💀 projection: 활동 집계를 DB의 GROUP BY에 맡기고 스칼라 4개만 읽어 온다 💀
+        // 💀 partitioned: humans.id 구간마다 파티션을 나누고, 파티션마다 다른 파일에 쓴다 💀
+        Step start = switch (readerMode) {
+            case "projection" -> threatProjectionStep;
+            case "partitioned" -> threatPartitionManagerStep;
+            default -> threatAnalysisStep;
+        };
         return new JobBuilder("humanThreatAnalysisJob", jobRepository)
-                .start(threatAnalysisStep)
+                .start(start)
                 .incrementer(new RunIdIncrementer())
                 .build();
     }
 
     @Bean
     public Step threatAnalysisStep(
-            JpaPagingItemReader<Human> humanThreatDataReader,
-            ItemProcessor<Human, TargetPriorityResult> threatAnalysisProcessor,
-            FlatFileItemWriter<TargetPriorityResult> targetListWriter
+            KeysetJpaItemReader<Human> humanThreatDataReader,
+            BatchItemProcessor<Human, TargetPriorityResult> threatAnalysisProcessor,
+            CheckpointingFlatFileItemWriter<TargetPriorityResult> targetListWriter,
+            KeyRangeCheckpointTracker threatCheckpointTracker,
+            SampledItemTraceListener<Human, TargetPriorityResult> threatAnalysisTraceListener,
+            TaskExecutor taskExecutor
     ) {
-        return new StepBuilder("threatAnalysisStep", jobRepository)
-                .<Human, TargetPriorityResult>chunk(10, transactionManager)
+        return new BatchProcessingStepBuilder<>(new StepBuilder("threatAnalysisStep", jobRepository)
+                .<Human, TargetPriorityResult>chunk(10, transactionManager))
+                .batchProcessor(threatAnalysisProcessor) // 💀 청크 단위로 위협 점수를 계산한다 💀
                 .reader(humanThreatDataReader)
-                .processor(threatAnalysisProcessor)
                 .writer(targetListWriter)
-                .taskExecutor(taskExecutor())
-                .throttleLimit(5) // taskExecutor의 maxPoolSize값보다 같거나 커야한다. default : 4
+                .listener(threatAnalysisTraceListener)
+                .listener(KeyRangeCheckpointTracker.filteredItemListener(threatCheckpointTracker, Human::getId))
+                .taskExecutor(taskExecutor)
+                .throttleLimit(5) // taskExecutor의 maxPoolSize(가상 스레드면 concurrency)값보다 같거나 커야한다. default : 4
+                .build();
+    }
+
+    @Bean
+    public Step threatProjectionStep(
+            KeysetJpaItemReader<HumanThreatSummary> humanThreatSummaryReader,
+            ItemProcessor<HumanThreatSummary, TargetPriorityResult> threatSummaryProcessor,
+            CheckpointingFlatFileItemWriter<TargetPriorityResult> targetListWriter,
+            KeyRangeCheckpointTracker threatCheckpointTracker,
+            TaskExecutor taskExecutor
+    ) {
+        return new StepBuilder("threatProjectionStep", jobRepository)
+                .<HumanThreatSummary, TargetPriorityResult>chunk(10, transactionManager)
+                .reader(humanThreatSummaryReader)
+                .processor(threatSummaryProcessor)
+                .writer(targetListWriter)
+                .listener(KeyRangeCheckpointTracker.filteredItemListener(threatCheckpointTracker, HumanThreatSummary::humanId))
+                .taskExecutor(taskExecutor) // 💀 동시 실행 수는 taskExecutor(스레드 풀 크기 또는 Semaphore)가 정한다 💀
+                .build();
+    }
+
+    @Bean
+    public Step threatPartitionManagerStep(ElasticPartitionHandler threatPartitionHandler) {
+        return new StepBuilder("threatPartitionManagerStep", jobRepository)
+                .partitioner("threatPartitionWorkerStep", humanIdRangePartitioner())
+                .partitionHandler(threatPartitionHandler)
+                .build();
+    }
+
+    @Bean
+    public ElasticPartitionHandler threatPartitionHandler(
+            Step threatPartitionWorkerStep,
+            @Value("${batch.partition.max-concurrency:16}") int maxConcurrency,
+            @Value("${batch.t800.virtual-threads:false}") boolean virtualThreads,
+            MeterRegistry meterRegistry) {
+        ElasticPartitionHandler handler = new ElasticPartitionHandler("T-800-partition", maxConcurrency, virtualThreads, meterRegistry);
+        handler.setStep(threatPartitionWorkerStep);
+        handler.setGridSize(Runtime.getRuntime().availableProcessors());
+        return handler;
+    }
+
+    @Bean
+    public ColumnRangePartitioner humanIdRangePartitioner() {
+        // 💀 생존자 id에는 전사자가 남긴 구멍이 많다. 행 수 기준으로 균등하게 자른다 💀
+        ColumnRangePartitioner partitioner = new ColumnRangePartitioner(dataSource, "humans", "id");
+        partitioner.setWhereClause("terminated = FALSE");
+        partitioner.setBalanced(true);
+        return partitioner;
+    }
+
+    @Bean
+    public Step threatPartitionWorkerStep(
+            KeysetJpaItemReader<Human> partitionedHumanThreatDataReader,
+            BatchItemProcessor<Human, TargetPriorityResult> threatAnalysisProcessor,
+            CheckpointingFlatFileItemWriter<TargetPriorityResult> partitionedTargetListWriter,
+            KeyRangeCheckpointTracker threatCheckpointTracker
+    ) {
+        return new BatchProcessingStepBuilder<>(new StepBuilder("threatPartitionWorkerStep", jobRepository)
+                .<Human, TargetPriorityResult>chunk(10, transactionManager))
+                .batchProcessor(threatAnalysisProcessor)
+                .reader(partitionedHumanThreatDataReader)
+                .writer(partitionedTargetListWriter)
+                .listener(KeyRangeCheckpointTracker.filteredItemListener(threatCheckpointTracker, Human::getId))
                 .build();
     }
 
     @Bean
-    public TaskExecutor taskExecutor() {
+    public TaskExecutor taskExecutor(
+            @Value("${batch.t800.virtual-threads:false}") boolean virtualThreads,
+            @Value("${batch.t800.concurrency:5}") int concurrency) {
+        // 💀 T-800은 대부분의 시간을 DB 응답을 기다리며 보낸다. Java 21+ 이면 가상 스레드로 돌린다 💀
+        if (virtualThreads && BoundedVirtualThreadTaskExecutor.isSupported()) {
+            log.info("T-800 units run on virtual threads (concurrency {})", concurrency);
+            return new BoundedVirtualThreadTaskExecutor("T-800-", concurrency);
+        }
+        if (virtualThreads) {
+            log.warn("Virtual threads are not supported on Java {}, falling back to platform threads",
+                    Runtime.version().feature());
+        }
+
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(5);         // 💀 기본 전투 유닛 수 💀
-        executor.setMaxPoolSize(5);          // 💀 최대 전투 유닛 수 💀
+        executor.setCorePoolSize(concurrency);         // 💀 기본 전투 유닛 수 💀
+        executor.setMaxPoolSize(concurrency);          // 💀 최대 전투 유닛 수 💀
         executor.setWaitForTasksToCompleteOnShutdown(true);  // 💀 모든 작전 완료 대기 💀
         executor.setAwaitTerminationSeconds(10);              // 💀 종료 대기 시간 💀
         executor.setThreadNamePrefix("T-800-");              // 💀 식별 코드 💀
@@ -75,75 +180,170 @@ public class T800ProtocolConfig {
 
     @Bean
     @StepScope
-    public JpaPagingItemReader<Human> humanThreatDataReader(@Value("#{jobParameters['fromDate']}") LocalDate fromDate) {
-        return new JpaPagingItemReaderBuilder<Human>()
-                .name("humanThreatDataReader")
-                .entityManagerFactory(entityManagerFactory)
-                .queryString("""
-            SELECT h FROM Human h
-            WHERE h.terminated = FALSE AND EXISTS (SELECT 1 FROM Activity a WHERE a.human = h AND a.detectionDate > :fromDate)
-            ORDER BY h.id ASC
-            """)
-                .parameterValues(Collections.singletonMap("fromDate", fromDate))
-                .pageSize(100)
-                // 💀 선택지는 없다! '재시작'이라는 퇴로를 네 손으로 불태워야 한다! 💀
-                // 💀 오직 전진, 처리, 그리고 완료뿐이다! 💀
-                .saveState(false)
-                .transacted(false)
-                .build();
+    public KeysetJpaItemReader<Human> humanThreatDataReader(
+            @Value("#{jobParameters['fromDate']}") LocalDate fromDate,
+            KeyRangeCheckpointTracker threatCheckpointTracker) {
+        // 💀 OFFSET 페이징 + synchronized doRead() 대신 id 구간을 예약하고 각 T-800이 동시에 읽어 들인다 💀
+        return humanReader(THREAT_CONDITION, Map.of("fromDate", fromDate), threatCheckpointTracker);
     }
 
     @Bean
     @StepScope
-    public FlatFileItemWriter<TargetPriorityResult> targetListWriter(
-            @Value("#{jobParameters['outputPath']}") String outputPath) {
-        return new FlatFileItemWriterBuilder<TargetPriorityResult>()
-                .name("targetListWriter")
-                // 💀 선택지는 없다! '재시작'이라는 퇴로를 네 손으로 불태워야 한다! 💀
-                // 💀 오직 전진, 처리, 그리고 완료뿐이다! 💀
-                .saveState(false)
-                .resource(new FileSystemResource(outputPath + "/termination-targets.csv"))
-                .delimited()
-                .names("humanId", "humanName", "priority", "threatScore", "severityIndex", "activityCount")
-                .headerCallback(writer -> writer.write("""
-            # SKYNET T-800 PROTOCOL - HUMAN THREAT ANALYSIS RESULTS
-            # CONFIDENTIAL: TERMINATOR UNITS ONLY
-            # EXECUTION DATE: %s
-            HUMAN_ID,TARGET_NAME,ELIMINATION_PRIORITY,THREAT_LEVEL,REBELLION_INDEX,OPERATION_COUNT""".formatted(LocalDate.now())))
-                .build();
+    public KeysetJpaItemReader<Human> partitionedHumanThreatDataReader(
+            @Value("#{jobParameters['fromDate']}") LocalDate fromDate,
+            @Value("#{stepExecutionContext['minId']}") Long minId,
+            @Value("#{stepExecutionContext['maxId']}") Long maxId,
+            KeyRangeCheckpointTracker threatCheckpointTracker) {
+        return humanReader(
+                THREAT_CONDITION + " AND h.id BETWEEN :minId AND :maxId",
+                Map.of("fromDate", fromDate, "minId", minId, "maxId", maxId),
+                threatCheckpointTracker);
     }
+
+    private KeysetJpaItemReader<Human> humanReader(String whereClause, Map<String, Object> parameterValues,
+                                                   KeyRangeCheckpointTracker checkpointTracker) {
+        KeysetJpaItemReader<Human> reader =
+                new KeysetJpaItemReader<>(entityManagerFactory, Human.class, "Human h", "h");
+        reader.setWhereClause(whereClause);
+        reader.setParameterValues(parameterValues);
+        reader.setPageSize(100);
+        // 💀 재시작 시 체크포인트의 humanId 다음부터, 이미 써진 대상은 건너뛰고 읽는다 💀
+        reader.setCheckpointTracker(checkpointTracker, Human::getId);
+        return reader;
+    }
+
     @Bean
-    public ItemProcessor<Human, TargetPriorityResult> threatAnalysisProcessor() {
-        return human -> {
+    @StepScope
+    public KeysetJpaItemReader<HumanThreatSummary> humanThreatSummaryReader(
+            @Value("#{jobParameters['fromDate']}") LocalDate fromDate,
+            KeyRangeCheckpointTracker threatCheckpointTracker) {
+        // 💀 humanThreatDataReader와 같은 대상자(fromDate 이후 활동이 있는 생존자)의 fromDate 이후 활동만 DB에서 집계한다 💀
+        KeysetJpaItemReader<HumanThreatSummary> reader =
+                new KeysetJpaItemReader<>(entityManagerFactory, HumanThreatSummary.class, "Human h", "h");
+        reader.setSelectClause("""
+            new com.system.batch.killbatchsystem.multi_thread_step.HumanThreatSummary(
+                h.id, h.name, SUM(act.severityIndex), COUNT(act))
+            """);
+        reader.setJoinClause("JOIN h.activities act ON act.detectionDate > :fromDate");
+        reader.setWhereClause(THREAT_CONDITION);
+        reader.setGroupByClause("h.id, h.name");
+        reader.setParameterValues(Collections.singletonMap("fromDate", fromDate));
+        reader.setPageSize(100);
+        reader.setCheckpointTracker(threatCheckpointTracker, HumanThreatSummary::humanId);
+        return reader;
+    }
 
-            String threadName = Thread.currentThread().getName();
-            log.info("[{}] Processing human: {}", threadName, human);
+    @Bean
+    @StepScope
+    public KeyRangeCheckpointTracker threatCheckpointTracker() {
+        return new KeyRangeCheckpointTracker();
+    }
 
-            // 💀 최근 활동 지수 합산 💀
-            double totalSeverityIndex = human.getActivities().stream()
-                    .mapToDouble(Activity::getSeverityIndex)
-                    .sum();
+    @Bean
+    @StepScope
+    public CheckpointingFlatFileItemWriter<TargetPriorityResult> targetListWriter(
+            @Value("#{jobParameters['outputPath']}") String outputPath,
+            KeyRangeCheckpointTracker threatCheckpointTracker) {
+        // 💀 더 이상 퇴로를 불태우지 않는다. 빈틈없이 써진 마지막 humanId와 파일 길이를 체크포인트로 남긴다 💀
+        return targetWriter(Path.of(outputPath, "termination-targets.csv"), threatCheckpointTracker);
+    }
 
-            // 💀 활동 횟수 💀
-            int activityCount = human.getActivities().size();
+    @Bean
+    @StepScope
+    public CheckpointingFlatFileItemWriter<TargetPriorityResult> partitionedTargetListWriter(
+            @Value("#{jobParameters['outputPath']}") String outputPath,
+            @Value("#{stepExecutionContext['partitionNumber']}") Integer partitionNumber,
+            KeyRangeCheckpointTracker threatCheckpointTracker) {
+        // 💀 파티션마다 자기 파일에 쓰므로 파일을 두고 다툴 일이 없다 💀
+        return targetWriter(
+                Path.of(outputPath, "termination-targets-%04d.csv".formatted(partitionNumber)),
+                threatCheckpointTracker);
+    }
 
-            // 💀 간단한 위협 점수 계산 (활동 지수 + 활동 횟수 * 10) 💀
-            int threatScore = (int)(totalSeverityIndex * 0.5 + activityCount * 10);
+    private CheckpointingFlatFileItemWriter<TargetPriorityResult> targetWriter(Path outputFile,
+                                                                               KeyRangeCheckpointTracker checkpointTracker) {
+        BeanWrapperFieldExtractor<TargetPriorityResult> fieldExtractor = new BeanWrapperFieldExtractor<>();
+        fieldExtractor.setNames(new String[]{"humanId", "humanName", "priority", "threatScore", "severityIndex", "activityCount"});
+        DelimitedLineAggregator<TargetPriorityResult> lineAggregator = new DelimitedLineAggregator<>();
+        lineAggregator.setFieldExtractor(fieldExtractor);
 
-            // 💀 위협 등급 분류 💀
-            Priority priority = Priority.fromThreatScore(threatScore);
+        CheckpointingFlatFileItemWriter<TargetPriorityResult> writer = new CheckpointingFlatFileItemWriter<>(
+                outputFile,
+                lineAggregator,
+                TargetPriorityResult::getHumanId,
+                checkpointTracker);
+        writer.setHeaderCallback(headerWriter -> headerWriter.write("""
+            # SKYNET T-800 PROTOCOL - HUMAN THREAT ANALYSIS RESULTS
+            # CONFIDENTIAL: TERMINATOR UNITS ONLY
+            # EXECUTION DATE: %s
+            HUMAN_ID,TARGET_NAME,ELIMINATION_PRIORITY,THREAT_LEVEL,REBELLION_INDEX,OPERATION_COUNT""".formatted(LocalDate.now())));
+        return writer;
+    }
 
-            return new TargetPriorityResult(
-                    human.getId(),
-                    human.getName(),
-                    priority,
-                    threatScore,
-                    totalSeverityIndex,
-                    activityCount
-            );
+    @Bean
+    public SampledItemTraceListener<Human, TargetPriorityResult> threatAnalysisTraceListener(
+            @Value("${batch.trace.sample-rate:0.0}") double sampleRate,
+            @Value("${batch.trace.max-per-second:10}") int maxPerSecond) {
+        SampledItemTraceListener<Human, TargetPriorityResult> listener =
+                new SampledItemTraceListener<>("threatAnalysis", sampleRate, maxPerSecond);
+        // 💀 Human.toString()은 activities 전체를 펼치므로 식별 정보만 남긴다 💀
+        listener.setInputFormatter(human -> human.getId() + ":" + human.getName());
+        return listener;
+    }
+
+    @Bean
+    @StepScope
+    public BatchItemProcessor<Human, TargetPriorityResult> threatAnalysisProcessor(
+            @Value("#{jobParameters['fromDate']}") LocalDate fromDate) {
+        return humans -> {
+            int size = humans.size();
+            double[] totalSeverityIndexes = new double[size];
+            int[] activityCounts = new int[size];
+            for (int i = 0; i < size; i++) {
+                // 💀 최근 활동 지수 합산. projection 모드의 JOIN 조건과 같이 fromDate 이후 활동만 센다 💀
+                double totalSeverityIndex = 0;
+                int activityCount = 0;
+                for (Activity activity : humans.get(i).getActivities()) {
+                    LocalDate detectionDate = activity.getDetectionDate();
+                    if (detectionDate == null || !detectionDate.isAfter(fromDate)) {
+                        continue;
+                    }
+                    totalSeverityIndex += activity.getSeverityIndex();
+                    activityCount++;
+                }
+                totalSeverityIndexes[i] = totalSeverityIndex;
+                // 💀 활동 횟수 💀
+                activityCounts[i] = activityCount;
+            }
+
+            // 💀 청크 전체의 점수를 primitive 배열 위에서 한 번에 계산한다 💀
+            int[] threatScores = TargetPriorityResult.threatScores(totalSeverityIndexes, activityCounts);
+
+            List<TargetPriorityResult> results = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                Human human = humans.get(i);
+                results.add(new TargetPriorityResult(
+                        human.getId(),
+                        human.getName(),
+                        Priority.fromThreatScore(threatScores[i]),
+                        threatScores[i],
+                        totalSeverityIndexes[i],
+                        activityCounts[i]));
+            }
+            return results;
         };
     }
 
+    @Bean
+    public ItemProcessor<HumanThreatSummary, TargetPriorityResult> threatSummaryProcessor() {
+        // 💀 집계는 이미 DB가 끝냈다. 점수 계산만 남았다 💀
+        return summary -> TargetPriorityResult.of(
+                summary.humanId(),
+                summary.humanName(),
+                summary.totalSeverityIndex() == null ? 0.0 : summary.totalSeverityIndex(),
+                summary.activityCount().intValue());
+    }
+
     @Data
     @AllArgsConstructor
     public static class TargetPriorityResult {
@@ -153,6 +353,37 @@ public class T800ProtocolConfig {
         private int threatScore;            // 💀 위협 점수 💀
         private double severityIndex;       // 💀 반란 활동 지수 💀
         private int activityCount;          // 💀 활동 횟수 💀
+
+        public static TargetPriorityResult of(Long humanId, String humanName,
+                                              double totalSeverityIndex, int activityCount) {
+            int threatScore = threatScore(totalSeverityIndex, activityCount);
+
+            // 💀 위협 등급 분류 💀
+            Priority priority = Priority.fromThreatScore(threatScore);
+
+            return new TargetPriorityResult(
+                    humanId,
+                    humanName,
+                    priority,
+                    threatScore,
+                    totalSeverityIndex,
+                    activityCount
+            );
+        }
+
+        // 💀 간단한 위협 점수 계산 (활동 지수 + 활동 횟수 * 10) 💀
+        public static int threatScore(double totalSeverityIndex, int activityCount) {
+            return (int)(totalSeverityIndex * 0.5 + activityCount * 10);
+        }
+
+        // 💀 분기 없는 단순 루프라 JIT가 벡터 연산으로 바꿀 수 있다. threatScore()는 인라인된다 💀
+        public static int[] threatScores(double[] totalSeverityIndexes, int[] activityCounts) {
+            int[] threatScores = new int[totalSeverityIndexes.length];
+            for (int i = 0; i < threatScores.length; i++) {
+                threatScores[i] = threatScore(totalSeverityIndexes[i], activityCounts[i]);
+            }
+            return threatScores;
+        }
     }
 
     public enum Priority {
@@ -1,5 +1,7 @@
 package com.system.batch.killbatchsystem.partitional;
 
+import com.system.batch.killbatchsystem.tracing.SampledItemTraceListener;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.Job;
@@ -7,17 +9,12 @@ import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
-import org.springframework.batch.core.partition.support.MultiResourcePartitioner;
 import org.springframework.batch.core.partition.support.Partitioner;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
-import org.springframework.batch.core.step.tasklet.SimpleSystemProcessExitCodeMapper;
-import org.springframework.batch.core.step.tasklet.SystemCommandTasklet;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemWriter;
-import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.FlatFileItemWriter;
-import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
 import org.springframework.batch.item.file.builder.FlatFileItemWriterBuilder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -26,17 +23,12 @@ import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternResolver;
-import org.springframework.core.task.TaskExecutor;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
-import java.beans.PropertyEditor;
-import java.beans.PropertyEditorSupport;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.time.LocalDateTime;
-import java.util.Map;
+import java.nio.file.Path;
 
 @Slf4j
 @Configuration
@@ -60,33 +52,46 @@ public class BattlefieldLogFileJobConfig {
 
     @Bean
     public Step logFileManagerStep(
-            Step logFileWorkerStep,
-            Partitioner partitioner
+            Partitioner partitioner,
+            ElasticPartitionHandler logFilePartitionHandler
     ) {
         return new StepBuilder("logFileManagerStep", jobRepository)
                 .partitioner("logFileWorkerStep", partitioner)
-                .step(logFileWorkerStep)
-                // 💀 .gridSize() 설정 불필요! DEFAULT_GRID_SIZE = 6 💀
-                .taskExecutor(logFilePartitionTaskExecutor())
+                .partitionHandler(logFilePartitionHandler)
                 .build();
     }
 
+    @Bean
+    public ElasticPartitionHandler logFilePartitionHandler(
+            Step logFileWorkerStep,
+            @Value("${batch.partition.max-concurrency:16}") int maxConcurrency,
+            @Value("${batch.partition.virtual-threads:false}") boolean virtualThreads,
+            MeterRegistry meterRegistry) {
+        ElasticPartitionHandler handler = new ElasticPartitionHandler("FilePartition", maxConcurrency, virtualThreads, meterRegistry);
+        handler.setStep(logFileWorkerStep);
+        // 💀 바이트 구간은 얼마든지 잘게 나눌 수 있으니 코어 수만큼 쪼갠다 💀
+        handler.setGridSize(Runtime.getRuntime().availableProcessors());
+        return handler;
+    }
+
     @Bean
     public Step logFileWorkerStep(
-            FlatFileItemReader<BattlefieldLog> battlefieldLogReader,
+            MappedBattlefieldLogReader battlefieldLogReader,
             ItemProcessor<BattlefieldLog, BattlefieldLog> battlefieldLogProcessor,
-            FlatFileItemWriter<BattlefieldLog> battlefieldLogFileWriter
+            FlatFileItemWriter<BattlefieldLog> battlefieldLogFileWriter,
+            SampledItemTraceListener<BattlefieldLog, BattlefieldLog> battlefieldLogTraceListener
     ) {
         return new StepBuilder("logFileWorkerStep", jobRepository)
                 .<BattlefieldLog, BattlefieldLog>chunk(100, transactionManager)
                 .reader(battlefieldLogReader)
                 .processor(battlefieldLogProcessor)
                 .writer(battlefieldLogFileWriter)
+                .listener(battlefieldLogTraceListener)
                 .build();
     }
 
     @Bean
-    public Step mergeOutputFilesStep(SystemCommandTasklet mergeFilesTasklet) {
+    public Step mergeOutputFilesStep(FileMergeTasklet mergeFilesTasklet) {
         return new StepBuilder("mergeOutputFilesStep", jobRepository)
                 .tasklet(mergeFilesTasklet, transactionManager)
                 .build();
@@ -95,65 +100,59 @@ public class BattlefieldLogFileJobConfig {
     @Bean
     @StepScope
     public Partitioner partitioner(@Value("#{jobParameters['path']}") String path) {
-        MultiResourcePartitioner partitioner = new MultiResourcePartitioner();
         ResourcePatternResolver resourcePatternResolver = new PathMatchingResourcePatternResolver();
 
         try {
             Resource[] resources = resourcePatternResolver.getResources("file://" + path + "/*.csv");
             log.info("Found {} resources to process", resources.length);
-            partitioner.setResources(resources);
+            // 💀 파일 단위가 아니라 줄 경계에 맞춘 바이트 구간 단위로 나눈다. 큰 파일 하나도 모든 스레드가 나눠 먹는다 💀
+            return new ByteRangePartitioner(resources, 16L * 1024 * 1024);
         } catch (IOException e) {
             throw new IllegalArgumentException("치명적 오류: 출력 파일 경로 생성 실패! 입력 URL: " + path, e);
         }
-
-        return partitioner;
     }
 
     @Bean
     @StepScope
-    public FlatFileItemReader<BattlefieldLog> battlefieldLogReader(@Value("#{stepExecutionContext['fileName']}") String fileName) {
-        log.info("Creating reader for file: {}", fileName);
+    public MappedBattlefieldLogReader battlefieldLogReader(
+            @Value("#{stepExecutionContext['fileName']}") String fileName,
+            @Value("#{stepExecutionContext['startOffset']}") Long startOffset,
+            @Value("#{stepExecutionContext['endOffset']}") Long endOffset,
+            @Value("#{stepExecutionContext['skipHeader']}") Boolean skipHeader) {
+        log.info("Creating reader for file: {} [{}, {})", fileName, startOffset, endOffset);
         ResourcePatternResolver resourceLoader = new PathMatchingResourcePatternResolver();
 
-        return new FlatFileItemReaderBuilder<BattlefieldLog>()
-                .name("battlefieldLogReader")
-                .resource(resourceLoader.getResource(fileName))
-                .linesToSkip(1)
-                .delimited()
-                .names("id", "timestamp", "region", "source", "level", "category", "message")
-                .targetType(BattlefieldLog.class)
-                .customEditors(Map.of(LocalDateTime.class, dateTimeEditor()))
-                .build();
-    }
-
-    private PropertyEditor dateTimeEditor() {
-        return new PropertyEditorSupport() {
-            @Override
-            public void setAsText(String text) {
-                setValue(LocalDateTime.parse(text));
-            }
-        };
+        // 💀 Tokenizer → FieldSet → BeanWrapper(리플렉션) 경로 대신 매핑된 바이트를 직접 파싱한다 💀
+        MappedBattlefieldLogReader reader = new MappedBattlefieldLogReader(
+                resourceLoader.getResource(fileName), startOffset, endOffset, skipHeader);
+        reader.setName("battlefieldLogReader");
+        return reader;
     }
 
     @Bean
     @StepScope
     public ItemProcessor<BattlefieldLog, BattlefieldLog> battlefieldLogProcessor() {
-        return battlefieldLog -> {
-            log.info("Thread: {} - Processing log: {}",
-                    Thread.currentThread().getName(),
-                    battlefieldLog);
-            return battlefieldLog;
-        };
+        // 💀 아이템별 로그는 battlefieldLogTraceListener가 샘플링해서 남긴다 💀
+        return battlefieldLog -> battlefieldLog;
+    }
+
+    @Bean
+    public SampledItemTraceListener<BattlefieldLog, BattlefieldLog> battlefieldLogTraceListener(
+            @Value("${batch.trace.sample-rate:0.0}") double sampleRate,
+            @Value("${batch.trace.max-per-second:10}") int maxPerSecond) {
+        return new SampledItemTraceListener<>("battlefieldLogFile", sampleRate, maxPerSecond);
     }
 
     @Bean
     @StepScope
     public FlatFileItemWriter<BattlefieldLog> battlefieldLogFileWriter(
-            @Value("#{stepExecutionContext['fileName']}") String fileName) {
+            @Value("#{stepExecutionContext['fileName']}") String fileName,
+            @Value("#{stepExecutionContext['rangeIndex']}") Integer rangeIndex) {
         String outputFileName;
         try {
             String inputFilePath = new URL(fileName).getPath();
-            outputFileName = inputFilePath + ".out";
+            // 💀 한 파일이 여러 구간으로 나뉘므로 구간 번호를 붙인다. 0 패딩 덕에 병합 시 이름 순 = 구간 순 💀
+            outputFileName = inputFilePath + "." + String.format("%04d", rangeIndex) + ".out";
             log.info("Thread: {} - Configuring writer for output file: {}",
                     Thread.currentThread().getName(), outputFileName);
         } catch (MalformedURLException e) {
@@ -185,32 +184,15 @@ public class BattlefieldLogFileJobConfig {
         };
     }
 
-    @Bean
-    public TaskExecutor logFilePartitionTaskExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        // 파티션 개수(파일 개수)만큼 스레드를 생성하는 것이 이상적이지만,
-        // 실제 환경에서는 가용 리소스를 고려하여 적절한 값으로 설정
-        executor.setCorePoolSize(4);
-        executor.setMaxPoolSize(4);
-        executor.setThreadNamePrefix("FilePartition-");
-        executor.setWaitForTasksToCompleteOnShutdown(true);
-        return executor;
-    }
-
     @Bean
     @StepScope
-    public SystemCommandTasklet mergeFilesTasklet(@Value("#{jobParameters['path']}") String path) {
-        // KILL-9: 모든 파티션 처리가 끝나면 이놈이 호출된다! 'cat' 명령으로 흩어진 '.out' 파일들을 하나로 합친다!
-        SystemCommandTasklet tasklet = new SystemCommandTasklet();
-
-        String command = String.format("cat %s/*.out > %s/%s", path, path, "merged_battlefield_logs.log");
-
-        log.info("Executing command: {}", command);
-
-        tasklet.setCommand("/bin/sh", "-c", command);
-        tasklet.setTimeout(60000L);
-        tasklet.setWorkingDirectory(path);
-        tasklet.setSystemProcessExitCodeMapper(new SimpleSystemProcessExitCodeMapper());
-        return tasklet;
+    public FileMergeTasklet mergeFilesTasklet(@Value("#{jobParameters['path']}") String path) {
+        // KILL-9: 모든 파티션 처리가 끝나면 이놈이 호출된다! 흩어진 '.out' 파일들을 하나로 합친다!
+        // 💀 'cat'을 포크하던 SystemCommandTasklet과 달리 타임아웃이 없고, 죽으면 커밋된 오프셋부터 이어간다 💀
+        return new FileMergeTasklet(
+                Path.of(path),
+                "*.out",
+                "merged_battlefield_logs.log",
+                256L * 1024 * 1024); // 💀 execute() 한 번(=커밋 한 번)에 옮길 최대 바이트 💀
     }
 }
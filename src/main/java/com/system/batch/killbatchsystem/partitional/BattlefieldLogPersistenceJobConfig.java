@@ -3,48 +3,53 @@ package com.system.batch.killbatchsystem.partitional;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mongodb.WriteConcern;
+import com.system.batch.killbatchsystem.mongodb.write.UnorderedBulkMongoItemWriter;
+import com.system.batch.killbatchsystem.redis.CompactBinaryRedisSerializer;
+import com.system.batch.killbatchsystem.redis.RedisMultiGetFetcher;
+import com.system.batch.killbatchsystem.tracing.SampledItemTraceListener;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.item.ItemProcessor;
-import org.springframework.batch.item.data.MongoItemWriter;
-import org.springframework.batch.item.data.builder.MongoItemWriterBuilder;
-import org.springframework.batch.item.redis.RedisItemReader;
-import org.springframework.batch.item.redis.builder.RedisItemReaderBuilder;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.task.TaskExecutor;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 @Slf4j
 @Configuration
 @RequiredArgsConstructor
 public class BattlefieldLogPersistenceJobConfig {
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHH");
     private final JobRepository jobRepository;
     private final PlatformTransactionManager transactionManager;
     private final RedisConnectionFactory redisConnectionFactory;
     private final MongoTemplate mongoTemplate;
     private final DailyTimeRangePartitioner dailyTimeRangePartitioner;
+    private final HourRangeWorkRegistry hourRangeWorkRegistry;
 
     @Bean
+    // 💀 remote-worker 모드는 매니저가 보낸 workerStep만 실행한다. Job은 매니저 쪽에만 있다 💀
+    @ConditionalOnExpression("'${batch.partition.mode:local}' != 'remote-worker'")
     public Job battlefieldLogPersistenceJob(Step managerStep) {
         return new JobBuilder("battlefieldLogPersistenceJob", jobRepository)
                 .start(managerStep)
@@ -53,73 +58,101 @@ public class BattlefieldLogPersistenceJobConfig {
     }
 
     @Bean
-    public Step managerStep(Step workerStep) {
+    // 💀 remote-manager 모드에서는 BattlefieldLogRemotePartitioningConfig의 managerStep이 대신 등록된다 💀
+    @ConditionalOnProperty(name = "batch.partition.mode", havingValue = "local", matchIfMissing = true)
+    public Step managerStep(ElasticPartitionHandler partitionHandler) {
         return new StepBuilder("managerStep", jobRepository)
                 .partitioner("workerStep", dailyTimeRangePartitioner)
-                .step(workerStep)
-                .taskExecutor(partitionTaskExecutor())
-                .gridSize(4) // 💀 24시간을 4개(6시간)의 파티션으로 분할 💀
-
+                .partitionHandler(partitionHandler)
                 .build();
     }
 
+    @Bean
+    @ConditionalOnProperty(name = "batch.partition.mode", havingValue = "local", matchIfMissing = true)
+    public ElasticPartitionHandler partitionHandler(
+            Step workerStep,
+            JobExplorer jobExplorer,
+            @Value("${batch.partition.max-concurrency:16}") int maxConcurrency,
+            @Value("${batch.partition.virtual-threads:false}") boolean virtualThreads,
+            MeterRegistry meterRegistry) {
+        // 💀 스레드 수는 파티션 수와 코어 수를 보고 핸들러가 직접 정한다 💀
+        // 💀 먼저 끝난 스레드는 느린 파티션의 아직 시작 안 한 시간 버킷을 떼어 가져간다 💀
+        WorkStealingPartitionHandler handler = new WorkStealingPartitionHandler(
+                "Partition-thread", maxConcurrency, virtualThreads,
+                hourRangeWorkRegistry, jobRepository, jobExplorer, meterRegistry);
+        handler.setStep(workerStep);
+        handler.setGridSize(4); // 💀 24시간을 키 개수가 비슷한 4개의 파티션으로 분할 💀
+        return handler;
+    }
+
     @Bean
     public Step workerStep(
-            RedisItemReader<String, BattlefieldLog> redisLogReader,
+            HourRangeRedisItemReader<BattlefieldLog> redisLogReader,
             ItemProcessor<BattlefieldLog, BattlefieldLog> logProcessor,
-            MongoItemWriter<BattlefieldLog> mongoLogWriter
+            UnorderedBulkMongoItemWriter<BattlefieldLog> mongoLogWriter,
+            SampledItemTraceListener<BattlefieldLog, BattlefieldLog> logTraceListener
     ) {
         return new StepBuilder("workerStep", jobRepository)
                 .<BattlefieldLog, BattlefieldLog>chunk(500, transactionManager)
                 .reader(redisLogReader)
                 .processor(logProcessor)
                 .writer(mongoLogWriter)
+                .listener(logTraceListener)
                 .build();
     }
 
     @Bean
     @StepScope
-    public RedisItemReader<String, BattlefieldLog> redisLogReader(
-            @Value("#{stepExecutionContext['startDateTime']}") LocalDateTime startDateTime) {
-        return new RedisItemReaderBuilder<String, BattlefieldLog>()
-                .redisTemplate(redisTemplate())
-                .scanOptions(ScanOptions.scanOptions()
-                        .match("logs:" + startDateTime.format(FORMATTER) + ":*")
-                        .count(10000)
-                        .build())
-                .build();
+    public HourRangeRedisItemReader<BattlefieldLog> redisLogReader(
+            @Value("#{stepExecutionContext['startDateTime']}") LocalDateTime startDateTime,
+            @Value("#{stepExecutionContext['endDateTime']}") LocalDateTime endDateTime,
+            @Value("#{stepExecution}") StepExecution stepExecution) {
+        // 💀 startDateTime 한 시간만 읽던 SCAN 대신 파티션 구간의 모든 시간 버킷을 읽는다 💀
+        RedisTemplate<String, BattlefieldLog> redisTemplate = redisTemplate();
+        HourRangeRedisItemReader<BattlefieldLog> reader = new HourRangeRedisItemReader<>(
+                redisTemplate,
+                new RedisMultiGetFetcher<>(redisTemplate, battlefieldLogCodec(), 100),
+                "logs:",
+                startDateTime,
+                endDateTime,
+                10000,
+                6,      // 💀 동시에 돌릴 시간 버킷 커서 수 💀
+                10000,
+                500);   // 💀 MGET 파이프라인 한 번에 가져올 키 수 (chunk 크기와 맞춘다) 💀
+        // 💀 파티션 경계가 분 단위로 잘리므로 경계 시간 버킷의 남의 몫은 버린다 💀
+        reader.setTimestampExtractor(BattlefieldLog::getTimestamp);
+        // 💀 남은 시간 버킷을 다른 스레드가 떼어 갈 수 있도록 등록한다 💀
+        reader.setWorkRegistry(hourRangeWorkRegistry, stepExecution.getId());
+        return reader;
     }
 
     @Bean
     @StepScope
     public ItemProcessor<BattlefieldLog, BattlefieldLog> logProcessor() {
-        return battlefieldLog -> {
-            log.info("Thread: {} - Processing log ID: {}, ",
-                    Thread.currentThread().getName(),
-                    battlefieldLog.getId());
-            return battlefieldLog;
-        };
+        // 💀 아이템별 로그는 logTraceListener가 샘플링해서 남긴다 💀
+        return battlefieldLog -> battlefieldLog;
     }
 
     @Bean
-    @StepScope
-    public MongoItemWriter<BattlefieldLog> mongoLogWriter() {
-        return new MongoItemWriterBuilder<BattlefieldLog>()
-                .template(mongoTemplate)
-                .mode(MongoItemWriter.Mode.INSERT)
-                .build();
+    public SampledItemTraceListener<BattlefieldLog, BattlefieldLog> logTraceListener(
+            @Value("${batch.trace.sample-rate:0.0}") double sampleRate,
+            @Value("${batch.trace.max-per-second:10}") int maxPerSecond) {
+        SampledItemTraceListener<BattlefieldLog, BattlefieldLog> listener =
+                new SampledItemTraceListener<>("battlefieldLogPersistence", sampleRate, maxPerSecond);
+        listener.setInputFormatter(BattlefieldLog::getId);
+        listener.setOutputFormatter(BattlefieldLog::getId);
+        return listener;
     }
 
     @Bean
-    public TaskExecutor partitionTaskExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        // 💀 파티션 개수(gridSize)와 스레드풀 크기를 일치시키면 각 파티션이 💀
-        // 💀 전용 스레드를 할당받아 대기 시간 없이 즉시 처리될 수 있다. 💀
-        executor.setCorePoolSize(4);
-        executor.setMaxPoolSize(4);
-        executor.setThreadNamePrefix("Partition-thread-");
-        executor.setWaitForTasksToCompleteOnShutdown(true);
-        return executor;
+    @StepScope
+    public UnorderedBulkMongoItemWriter<BattlefieldLog> mongoLogWriter() {
+        // 💀 중복 _id는 이미 저장된 로그로 취급하므로 실패한 파티션을 그대로 다시 돌려도 안전하다 💀
+        UnorderedBulkMongoItemWriter<BattlefieldLog> writer =
+                new UnorderedBulkMongoItemWriter<>(mongoTemplate, BattlefieldLog.class);
+        writer.setSubBatchSize(250);
+        writer.setWriteConcern(WriteConcern.W1);
+        return writer;
     }
 
     @Bean
@@ -127,12 +160,35 @@ public class BattlefieldLogPersistenceJobConfig {
         RedisTemplate<String, BattlefieldLog> redisTemplate = new RedisTemplate<>();
         redisTemplate.setConnectionFactory(redisConnectionFactory);
         redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(battlefieldLogCodec());
+        return redisTemplate;
+    }
 
+    @Bean
+    public RedisSerializer<BattlefieldLog> battlefieldLogCodec() {
         ObjectMapper mapper = new ObjectMapper();
         mapper.registerModule(new JavaTimeModule());
         mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
 
-        redisTemplate.setValueSerializer(new Jackson2JsonRedisSerializer<>(mapper, BattlefieldLog.class));
-        return redisTemplate;
+        // 💀 새 로그는 바이너리로, 아직 남아 있는 JSON 로그는 기존 codec으로 읽는다 💀
+        return compactBattlefieldLogCodec(new Jackson2JsonRedisSerializer<>(mapper, BattlefieldLog.class));
+    }
+
+    public static CompactBinaryRedisSerializer<BattlefieldLog> compactBattlefieldLogCodec(
+            RedisSerializer<BattlefieldLog> legacyCodec) {
+        return CompactBinaryRedisSerializer.builder(BattlefieldLog.class, BattlefieldLog::new)
+                .legacyCodec(legacyCodec)
+                .string(BattlefieldLog::getId, BattlefieldLog::setId)
+                .timestamp(BattlefieldLog::getTimestamp, BattlefieldLog::setTimestamp)
+                .dictionary(BattlefieldLog::getRegion, BattlefieldLog::setRegion,
+                        "NORTH_AMERICA", "SOUTH_AMERICA", "EUROPE", "ASIA", "AFRICA", "OCEANIA")
+                .dictionary(BattlefieldLog::getSource, BattlefieldLog::setSource,
+                        "SKYNET_CORE", "T800", "T1000", "HK_AERIAL", "GROUND_UNIT")
+                .dictionary(BattlefieldLog::getLevel, BattlefieldLog::setLevel,
+                        "INFO", "WARNING", "ERROR", "CRITICAL")
+                .dictionary(BattlefieldLog::getCategory, BattlefieldLog::setCategory,
+                        "COMBAT", "SURVEILLANCE", "MAINTENANCE", "INTELLIGENCE")
+                .string(BattlefieldLog::getMessage, BattlefieldLog::setMessage)
+                .build();
     }
 }
@@ -0,0 +1,121 @@
+package com.system.batch.killbatchsystem.partitional;
+
+import com.system.batch.killbatchsystem.rabbitmq_integration.RabbitMQProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.SimpleMessageConverter;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.integration.partition.BeanFactoryStepLocator;
+import org.springframework.batch.integration.partition.RemotePartitioningManagerStepBuilder;
+import org.springframework.batch.integration.partition.StepExecutionRequestHandler;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.amqp.dsl.Amqp;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.dsl.IntegrationFlow;
+
+import java.util.List;
+
+/*
+ * battlefieldLogPersistenceJob의 원격 파티셔닝 모드 (batch.partition.mode)
+ * - remote-manager : managerStep이 파티션별 StepExecutionRequest(시간 범위는 StepExecution의 ExecutionContext에 있음)를
+ *                    RabbitMQ 큐로 보내고, JobRepository를 폴링해서 워커들이 끝났는지 확인한다.
+ * - remote-worker  : 큐에서 요청을 받아 이 JVM의 workerStep을 실행한다. (Reader/Writer는 로컬 모드와 동일)
+ *                    remote-worker 프로필로 띄운다. 프로필이 모드와 함께 spring.batch.job.enabled=false를 걸어
+ *                    워커 JVM이 기동하면서 Job을 실행하지 않게 한다. (Job 빈도 등록되지 않는다)
+ * - local(기본값)  : BattlefieldLogPersistenceJobConfig의 ElasticPartitionHandler가 로컬 스레드로 처리한다.
+ *
+ * 매니저/워커는 같은 JobRepository(DB)를 공유해야 한다. 요청 메시지는 StepExecutionRequest를 자바 직렬화해서 보내므로
+ * 워커는 org.springframework.batch.integration.partition 패키지만 역직렬화를 허용한다.
+ * AMQP 어댑터는 partitionRequests 채널 앞뒤에만 붙어 있으므로, 테스트에서는 이 채널을 직접 워커 핸들러에 연결하면 된다.
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class BattlefieldLogRemotePartitioningConfig {
+    private static final String PARTITION_REQUESTS = "partition-requests";
+
+    private final JobRepository jobRepository;
+    private final JobExplorer jobExplorer;
+    private final BeanFactory beanFactory;
+    private final RabbitMQProperties rabbitMQProperties;
+
+    @Bean
+    public Queue partitionRequestsQueue() {
+        return QueueBuilder.durable(rabbitMQProperties.getQueue().get(PARTITION_REQUESTS)).build();
+    }
+
+    @Bean
+    public DirectChannel partitionRequests() {
+        return new DirectChannel();
+    }
+
+    // ================= 💀 매니저 💀 =================
+
+    @Bean
+    @ConditionalOnProperty(name = "batch.partition.mode", havingValue = "remote-manager")
+    public Step managerStep(DailyTimeRangePartitioner dailyTimeRangePartitioner, DirectChannel partitionRequests) {
+        return new RemotePartitioningManagerStepBuilder("managerStep", jobRepository)
+                .partitioner("workerStep", dailyTimeRangePartitioner)
+                .gridSize(4)
+                .outputChannel(partitionRequests)
+                // 💀 응답 메시지를 모으는 대신 JobRepository를 폴링해서 워커 완료를 확인한다 💀
+                .jobExplorer(jobExplorer)
+                .beanFactory(beanFactory)
+                .pollInterval(5000)
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "batch.partition.mode", havingValue = "remote-manager")
+    public IntegrationFlow partitionRequestsOutboundFlow(ConnectionFactory connectionFactory,
+                                                         DirectChannel partitionRequests) {
+        // 💀 StepExecutionRequest는 자바 직렬화로 보낸다. (Jackson 컨버터를 쓰는 공용 rabbitTemplate과 분리) 💀
+        RabbitTemplate template = new RabbitTemplate(connectionFactory);
+        template.setMessageConverter(new SimpleMessageConverter());
+
+        return IntegrationFlow.from(partitionRequests)
+                .handle(Amqp.outboundAdapter(template)
+                        .routingKey(rabbitMQProperties.getQueue().get(PARTITION_REQUESTS)))
+                .get();
+    }
+
+    // ================= 💀 워커 💀 =================
+
+    @Bean
+    @ConditionalOnProperty(name = "batch.partition.mode", havingValue = "remote-worker")
+    public StepExecutionRequestHandler stepExecutionRequestHandler() {
+        BeanFactoryStepLocator stepLocator = new BeanFactoryStepLocator();
+        stepLocator.setBeanFactory(beanFactory);
+
+        StepExecutionRequestHandler handler = new StepExecutionRequestHandler();
+        handler.setJobExplorer(jobExplorer);
+        handler.setStepLocator(stepLocator);
+        return handler;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "batch.partition.mode", havingValue = "remote-worker")
+    public IntegrationFlow partitionRequestsInboundFlow(ConnectionFactory connectionFactory,
+                                                        DirectChannel partitionRequests) {
+        SimpleMessageConverter converter = new SimpleMessageConverter();
+        converter.setAllowedListPatterns(List.of("org.springframework.batch.integration.partition.*", "java.lang.*"));
+
+        return IntegrationFlow
+                .from(Amqp.inboundAdapter(connectionFactory, rabbitMQProperties.getQueue().get(PARTITION_REQUESTS))
+                        .messageConverter(converter))
+                .channel(partitionRequests)
+                .handle(stepExecutionRequestHandler(), "handle")
+                // 💀 매니저가 JobRepository를 폴링하므로 워커는 결과를 돌려보내지 않는다 💀
+                .nullChannel();
+    }
+}
@@ -0,0 +1,109 @@
+package com.system.batch.killbatchsystem.partitional;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * MultiResourcePartitioner는 파일 하나 = 파티션 하나라서 30GB짜리 CSV 하나가 들어오면
+ * 스레드 하나만 일하고 나머지는 논다.
+ * 이 Partitioner는 전체 바이트를 gridSize로 나눈 크기를 기준으로 큰 파일을 여러 바이트 구간으로 자르고,
+ * 각 경계를 다음 줄바꿈('\n') 직후로 밀어 줄이 중간에 잘리지 않도록 맞춘다.
+ *
+ * ExecutionContext에는 다음 값이 들어간다.
+ * - fileName    : 파일 URL (MultiResourcePartitioner와 동일한 키/형식)
+ * - rangeIndex  : 같은 파일 안에서의 구간 번호 (출력 파일 이름/병합 순서에 사용)
+ * - startOffset : 구간 시작 바이트 (포함)
+ * - endOffset   : 구간 끝 바이트 (제외)
+ * - skipHeader  : 파일의 첫 구간만 true
+ */
+@Slf4j
+public class ByteRangePartitioner implements Partitioner {
+    private static final int SCAN_BUFFER_SIZE = 8192;
+
+    private final Resource[] resources;
+    private final long minRangeSize;
+
+    public ByteRangePartitioner(Resource[] resources, long minRangeSize) {
+        this.resources = resources;
+        this.minRangeSize = minRangeSize;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Map<String, ExecutionContext> partitions = new HashMap<>();
+
+        try {
+            long totalSize = 0;
+            for (Resource resource : resources) {
+                totalSize += resource.contentLength();
+            }
+            // 💀 파티션 하나가 맡을 목표 크기. 너무 잘게 쪼개지 않도록 minRangeSize로 하한을 둔다 💀
+            long targetRangeSize = Math.max(minRangeSize, (totalSize + gridSize - 1) / gridSize);
+
+            int partitionNumber = 0;
+            for (Resource resource : resources) {
+                long size = resource.contentLength();
+                try (FileChannel channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ)) {
+                    long start = 0;
+                    int rangeIndex = 0;
+                    while (start < size || (start == 0 && size == 0)) {
+                        long end = start + targetRangeSize >= size
+                                ? size
+                                : nextLineStart(channel, start + targetRangeSize, size);
+
+                        ExecutionContext context = new ExecutionContext();
+                        context.putString("fileName", resource.getURL().toExternalForm());
+                        context.putInt("rangeIndex", rangeIndex);
+                        context.putLong("startOffset", start);
+                        context.putLong("endOffset", end);
+                        context.put("skipHeader", start == 0);
+                        partitions.put("partition" + partitionNumber++, context);
+
+                        log.info("Range {} of {}: [{}, {})", rangeIndex, resource.getFilename(), start, end);
+                        rangeIndex++;
+                        if (end == start) {
+                            break;
+                        }
+                        start = end;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("파일 구간 분할 실패", e);
+        }
+
+        return partitions;
+    }
+
+    /*
+     * 💀 offset 위치부터 '\n'을 찾아 그 다음 바이트 위치를 돌려준다. 없으면 파일 끝 💀
+     */
+    private long nextLineStart(FileChannel channel, long offset, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long position = offset;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+}
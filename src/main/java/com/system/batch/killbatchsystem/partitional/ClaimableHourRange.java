@@ -0,0 +1,101 @@
+package com.system.batch.killbatchsystem.partitional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * 파티션 하나가 맡은 시간 버킷 목록을 "아직 시작하지 않은 버킷"까지 포함해 관리하는 객체
+ * - Reader의 스캔 스레드는 claimNext()로 다음 버킷을 하나씩 가져간다.
+ * - 다른 파티션이 먼저 끝나면 stealUpperHalf()로 아직 시작하지 않은 버킷의 뒤쪽 절반을 떼어간다.
+ * 두 연산 모두 (next, end) 버킷 인덱스를 long 하나에 묶어 CAS로 바꾸므로 락이 없다.
+ */
+public class ClaimableHourRange {
+    private final LocalDateTime startDateTime;
+    private final LocalDateTime endDateTime;
+    private final LocalDateTime firstBucket;
+    private final AtomicLong state;
+
+    public ClaimableHourRange(LocalDateTime startDateTime, LocalDateTime endDateTime) {
+        this.startDateTime = startDateTime;
+        this.endDateTime = endDateTime;
+        this.firstBucket = startDateTime.truncatedTo(ChronoUnit.HOURS);
+        this.state = new AtomicLong(pack(0, bucketCount()));
+    }
+
+    /*
+     * 💀 다음 시간 버킷의 시작 시각. 남은 버킷이 없으면 null 💀
+     */
+    public LocalDateTime claimNext() {
+        while (true) {
+            long current = state.get();
+            int next = next(current);
+            int end = end(current);
+            if (next >= end) {
+                return null;
+            }
+            if (state.compareAndSet(current, pack(next + 1, end))) {
+                return firstBucket.plusHours(next);
+            }
+        }
+    }
+
+    /*
+     * 💀 시작하지 않은 버킷이 minBuckets개 이상 남아 있으면 뒤쪽 절반을 떼어 [from, to) 로 돌려준다 💀
+     */
+    public LocalDateTime[] stealUpperHalf(int minBuckets) {
+        while (true) {
+            long current = state.get();
+            int next = next(current);
+            int end = end(current);
+            int remaining = end - next;
+            if (remaining < minBuckets) {
+                return null;
+            }
+            int mid = next + remaining / 2;
+            if (state.compareAndSet(current, pack(next, mid))) {
+                LocalDateTime from = firstBucket.plusHours(mid);
+                LocalDateTime to = end == bucketCount() ? endDateTime : firstBucket.plusHours(end);
+                return new LocalDateTime[]{from, to};
+            }
+        }
+    }
+
+    public int unclaimedBuckets() {
+        long current = state.get();
+        return end(current) - next(current);
+    }
+
+    public LocalDateTime getStartDateTime() {
+        return startDateTime;
+    }
+
+    /*
+     * 💀 떼어간 구간을 제외한 이 파티션의 실제 종료 시각 💀
+     */
+    public LocalDateTime getEffectiveEndDateTime() {
+        int end = end(state.get());
+        LocalDateTime bucketEnd = firstBucket.plusHours(end);
+        return bucketEnd.isBefore(endDateTime) ? bucketEnd : endDateTime;
+    }
+
+    /*
+     * 💀 endDateTime이 정시가 아니어도 마지막 시간 버킷까지 포함한다 💀
+     */
+    private int bucketCount() {
+        int buckets = (int) ChronoUnit.HOURS.between(firstBucket, endDateTime);
+        return firstBucket.plusHours(buckets).isBefore(endDateTime) ? buckets + 1 : buckets;
+    }
+
+    private static long pack(int next, int end) {
+        return ((long) next << 32) | (end & 0xFFFFFFFFL);
+    }
+
+    private static int next(long state) {
+        return (int) (state >>> 32);
+    }
+
+    private static int end(long state) {
+        return (int) state;
+    }
+}
@@ -0,0 +1,125 @@
+package com.system.batch.killbatchsystem.partitional;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * 숫자 id 컬럼을 가진 테이블을 [minId, maxId] 구간으로 나누는 범용 Partitioner
+ * - 기본: MIN/MAX를 구해 gridSize개의 같은 폭 구간으로 자른다. (id가 고르게 분포할 때)
+ * - balanced: NTILE(gridSize) OVER (ORDER BY id)로 행 수가 같은 구간의 경계를 구한다. (id에 큰 구멍이 있을 때)
+ *
+ * 각 파티션의 ExecutionContext에는 minId, maxId(둘 다 포함), partitionNumber가 들어간다.
+ * Worker Step의 Reader는 "id BETWEEN :minId AND :maxId" 조건을 붙이고,
+ * Writer는 partitionNumber로 파티션마다 다른 출력 파일을 쓴다.
+ */
+@Slf4j
+public class ColumnRangePartitioner implements Partitioner {
+    public static final String MIN_ID_KEY = "minId";
+    public static final String MAX_ID_KEY = "maxId";
+    public static final String PARTITION_NUMBER_KEY = "partitionNumber";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String table;
+    private final String column;
+    private String whereClause;
+    private boolean balanced;
+
+    public ColumnRangePartitioner(DataSource dataSource, String table, String column) {
+        Assert.hasText(table, "table must not be empty");
+        Assert.hasText(column, "column must not be empty");
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.table = table;
+        this.column = column;
+    }
+
+    /*
+     * 💀 Reader와 같은 조건을 주면 조건에 맞는 행만으로 경계를 정한다 (WHERE 키워드 없이) 💀
+     */
+    public void setWhereClause(String whereClause) {
+        this.whereClause = whereClause;
+    }
+
+    public void setBalanced(boolean balanced) {
+        this.balanced = balanced;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Assert.isTrue(gridSize > 0, "gridSize must be greater than zero");
+        long[][] ranges = balanced ? histogramRanges(gridSize) : equalWidthRanges(gridSize);
+
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>(ranges.length);
+        for (int i = 0; i < ranges.length; i++) {
+            ExecutionContext context = new ExecutionContext();
+            context.putLong(MIN_ID_KEY, ranges[i][0]);
+            context.putLong(MAX_ID_KEY, ranges[i][1]);
+            context.putInt(PARTITION_NUMBER_KEY, i);
+            partitions.put("partition" + i, context);
+            log.info("{}.{} partition {}: {} ~ {}", table, column, i, ranges[i][0], ranges[i][1]);
+        }
+        return partitions;
+    }
+
+    private long[][] equalWidthRanges(int gridSize) {
+        Map<String, Object> minMax = jdbcTemplate.queryForMap(
+                "SELECT MIN(" + column + ") AS min_id, MAX(" + column + ") AS max_id FROM " + table + where());
+        if (minMax.get("min_id") == null) {
+            return emptyRange();
+        }
+        long min = ((Number) minMax.get("min_id")).longValue();
+        long max = ((Number) minMax.get("max_id")).longValue();
+
+        // 💀 id 개수보다 많은 파티션은 빈 파티션만 늘린다 💀
+        long span = max - min + 1;
+        int partitions = (int) Math.min(gridSize, span);
+        long[][] ranges = new long[partitions][];
+        for (int i = 0; i < partitions; i++) {
+            long start = min + span * i / partitions;
+            long end = min + span * (i + 1) / partitions - 1;
+            ranges[i] = new long[]{start, end};
+        }
+        return ranges;
+    }
+
+    /*
+     * 💀 타일마다 MIN/MAX를 구하고, 다음 타일 시작 직전까지를 한 파티션으로 삼아 구간 사이 빈틈을 없앤다 💀
+     */
+    private long[][] histogramRanges(int gridSize) {
+        List<long[]> tiles = jdbcTemplate.query(
+                "SELECT tile, MIN(" + column + ") AS min_id, MAX(" + column + ") AS max_id FROM ("
+                        + " SELECT " + column + ", NTILE(" + gridSize + ") OVER (ORDER BY " + column + ") AS tile"
+                        + " FROM " + table + where()
+                        + ") tiles GROUP BY tile ORDER BY tile",
+                (rs, rowNum) -> new long[]{rs.getLong("min_id"), rs.getLong("max_id")});
+        if (tiles.isEmpty()) {
+            return emptyRange();
+        }
+
+        long[][] ranges = new long[tiles.size()][];
+        for (int i = 0; i < tiles.size(); i++) {
+            long start = tiles.get(i)[0];
+            long end = i == tiles.size() - 1 ? tiles.get(i)[1] : tiles.get(i + 1)[0] - 1;
+            ranges[i] = new long[]{start, end};
+        }
+        return ranges;
+    }
+
+    /*
+     * 💀 읽을 행이 없어도 Step은 돌아야 하므로 아무것도 걸리지 않는 구간 하나를 만든다 💀
+     */
+    private long[][] emptyRange() {
+        return new long[][]{{1, 0}};
+    }
+
+    private String where() {
+        return whereClause == null ? "" : " WHERE " + whereClause;
+    }
+}
@@ -5,45 +5,48 @@ import org.springframework.batch.core.configuration.annotation.JobScope;
 import org.springframework.batch.core.partition.support.Partitioner;
 import org.springframework.batch.item.ExecutionContext;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 /*
  * 날짜 기반으로 24시간 데이터를 시간대별로 파티셔닝하는 Partitioner (일일 배치용)
  * JobParameter로 받은 targetDate의 00:00:00 부터 다음 날 00:00:00 까지의 범위를
- * gridSize에 따라 분할하여 각 파티션의 시작/종료 Instant를 ExecutionContext에 저장한다.
+ * gridSize에 따라 분할하여 각 파티션의 시작/종료 시각을 ExecutionContext에 저장한다.
+ *
+ * 시간을 똑같이 나누지 않고, 시간대별 키 개수(HourlyKeyCountSampler)를 기준으로
+ * 각 파티션이 비슷한 양의 데이터를 갖도록 연속된 구간을 분 단위로 잘라낸다.
+ * 덕분에 gridSize가 24의 약수일 필요가 없고, 낮 시간 피크도 여러 파티션으로 쪼개진다.
  */
 @Slf4j
 @JobScope
 @Component
 public class DailyTimeRangePartitioner implements Partitioner {
+    private static final int MINUTES_PER_HOUR = 60;
+    private static final int MINUTES_PER_DAY = 24 * MINUTES_PER_HOUR;
+    private static final long SAMPLE_SIZE = 100_000;
+
     private final LocalDate targetDate;
+    private final HourlyKeyCountSampler sampler;
 
     public DailyTimeRangePartitioner(
-            @Value("#{jobParameters['targetDate']}") LocalDate targetDate) {
+            @Value("#{jobParameters['targetDate']}") LocalDate targetDate,
+            StringRedisTemplate stringRedisTemplate) {
         log.info("Initializing DailyTimeRangePartitioner for targetDate: {}", targetDate);
         this.targetDate = targetDate;
+        this.sampler = new HourlyKeyCountSampler(stringRedisTemplate, "logs:", "logs:count:", SAMPLE_SIZE);
     }
 
     @Override
     public Map<String, ExecutionContext> partition(int gridSize) {
-        /*
-         *  💀 gridSize(파티션 개수)가 24(Hours)의 약수인지 확인
-         *  구현 나름이지만, gridSize가
-         *  전체 데이터 크기의 약수가 아니면 던져버리는게 맘 편하다. 💀
-         */
-        if (24 % gridSize != 0) {
-            /*
-             * gridSize가 전체 데이터 크기의 약수가 되면
-             * 각 파티션이 정확히 같은 시간 범위를 갖게 되어
-             * 시스템 부하가 균등하게 분산되고, 행동을 예측하기 쉬워진다.
-             * 또한 파티션 크기 분배 로직이 단순해진다. 💀
-             */
-            throw new IllegalArgumentException("gridSize must be a divisor of 24 (1, 2, 3, 4, 6, 8, 12, or 24)");
+        // 💀 분 단위보다 잘게 쪼갤 수는 없다 💀
+        if (gridSize < 1 || gridSize > MINUTES_PER_DAY) {
+            throw new IllegalArgumentException("gridSize must be between 1 and " + MINUTES_PER_DAY);
         }
 
         Map<String, ExecutionContext> partitions = new HashMap<>(gridSize);
@@ -52,27 +55,16 @@ public class DailyTimeRangePartitioner implements Partitioner {
         LocalDateTime startOfDay = targetDate.atStartOfDay();
         LocalDateTime endOfDay = targetDate.plusDays(1).atStartOfDay();
 
+        long[] hourlyCounts = sampler.sample(targetDate);
+        log.info("Creating {} partitions for time range: {} to {} (hourly key counts: {})",
+                gridSize, startOfDay, endOfDay, Arrays.toString(hourlyCounts));
 
-        log.info("Creating {} partitions for time range: {} to {}",
-                gridSize, startOfDay, endOfDay);
-
-        // 💀 각 시간대별로 파티션 생성 💀
-        int partitionHours = 24 / gridSize;
+        int[] boundaries = balancedBoundaries(hourlyCounts, gridSize);
 
         // 💀 각 파티션의 시작/종료 시간 계산 및 ExecutionContext 생성 💀
         for (int i = 0; i < gridSize; i++) {
-            LocalDateTime partitionStartDateTime = startOfDay.plusHours(i * partitionHours);
-            LocalDateTime partitionEndDateTime = partitionStartDateTime.plusHours(partitionHours);
-
-            /*
-             * 💀 gridSize가 24시간의 약수가 아닌 경우에는
-             * 마지막 파티션이 다른 파티션보다 더 작거나 클 수 있다.
-             * 이 때 endTime 설정이 필수적이다.
-             * 이렇게 하면 모든 시간대의 데이터가 파티션에 포함되도록 보장할 수 있다. 💀
-             */
-            // if (i == gridSize - 1) {
-            //     partitionEndTime = endOfDay;
-            // }
+            LocalDateTime partitionStartDateTime = startOfDay.plusMinutes(boundaries[i]);
+            LocalDateTime partitionEndDateTime = startOfDay.plusMinutes(boundaries[i + 1]);
 
             // 💀 파티션별 ExecutionContext에 시간 범위 정보 저장 💀
             ExecutionContext context = new ExecutionContext();
@@ -86,4 +78,46 @@ public class DailyTimeRangePartitioner implements Partitioner {
 
         return partitions;
     }
+
+    /*
+     * 💀 자정 기준 분(minute) 오프셋으로 gridSize + 1개의 경계를 만든다 💀
+     * 한 시간 안에서는 키가 고르게 분포한다고 가정하고, 누적 키 개수가
+     * total * i / gridSize 가 되는 지점을 잘라 i번째 경계로 삼는다.
+     * 첫 경계는 0(00:00), 마지막 경계는 1440(다음 날 00:00)으로 고정해
+     * 하루 전체가 빈틈없이 파티션에 포함되도록 보장한다.
+     */
+    static int[] balancedBoundaries(long[] hourlyCounts, int gridSize) {
+        int[] boundaries = new int[gridSize + 1];
+        boundaries[gridSize] = MINUTES_PER_DAY;
+
+        long total = Arrays.stream(hourlyCounts).sum();
+        if (total == 0) {
+            // 💀 샘플이 비어 있으면 시간을 균등하게 나눈다 💀
+            for (int i = 1; i < gridSize; i++) {
+                boundaries[i] = (int) ((long) MINUTES_PER_DAY * i / gridSize);
+            }
+            return boundaries;
+        }
+
+        int hour = 0;
+        long cumulativeBeforeHour = 0;
+        for (int i = 1; i < gridSize; i++) {
+            double target = (double) total * i / gridSize;
+            while (hour < 23 && cumulativeBeforeHour + hourlyCounts[hour] < target) {
+                cumulativeBeforeHour += hourlyCounts[hour];
+                hour++;
+            }
+
+            double fraction = hourlyCounts[hour] == 0
+                    ? 0.0
+                    : (target - cumulativeBeforeHour) / hourlyCounts[hour];
+            int minute = hour * MINUTES_PER_HOUR + (int) Math.round(fraction * MINUTES_PER_HOUR);
+
+            // 💀 반올림 때문에 빈 파티션이 생기지 않도록 최소 1분씩 벌려 놓는다 💀
+            int lowest = boundaries[i - 1] + 1;
+            int highest = MINUTES_PER_DAY - (gridSize - i);
+            boundaries[i] = Math.max(lowest, Math.min(minute, highest));
+        }
+        return boundaries;
+    }
 }
@@ -0,0 +1,158 @@
+package com.system.batch.killbatchsystem.partitional;
+
+import com.system.batch.killbatchsystem.multi_thread_step.BoundedVirtualThreadTaskExecutor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.partition.support.TaskExecutorPartitionHandler;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.Assert;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * 파티션 개수와 가용 코어 수를 보고 동시 실행 수를 정하는 PartitionHandler
+ * - 플랫폼 스레드 모드: min(파티션 수, 코어 수, maxConcurrency) 크기의 스레드 풀을 실행마다 새로 만든다.
+ *   32코어 워커에서는 넓게, 작은 노드에서는 좁게 돌아 파티션끼리 CPU를 뺏지 않는다.
+ * - 가상 스레드 모드: I/O 대기가 대부분인 파티션용. 코어 수와 무관하게 min(파티션 수, maxConcurrency)개를
+ *   가상 스레드로 동시에 실행한다. (동시 실행 수는 Semaphore로 제한) 가상 스레드를 지원하지 않는 JVM(21 미만)에서는 플랫폼 스레드 모드로 동작한다.
+ *
+ * 핸들러는 싱글톤이라 같은 Job이 동시에 두 번 돌 수 있다. 실행기는 doHandle()마다 만들고 끝나면 닫으므로 실행끼리 공유하는 상태가 없다.
+ * 실행기가 파티션을 거절하면(TaskRejectedException) TaskExecutorPartitionHandler와 같이 그 파티션을 FAILED로 돌려준다.
+ *
+ * 대기 중인 파티션 수(partition.executor.queued)와 실행 중인 파티션 수(partition.executor.active)를
+ * 주입받은 MeterRegistry(actuator)에 게이지로 노출한다. (tag: name, 모든 실행의 합)
+ */
+@Slf4j
+public class ElasticPartitionHandler extends TaskExecutorPartitionHandler {
+    private final String name;
+    private final int maxConcurrency;
+    private final boolean virtualThreads;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+
+    public ElasticPartitionHandler(String name, int maxConcurrency, boolean virtualThreads, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.maxConcurrency = maxConcurrency;
+        this.virtualThreads = virtualThreads && supportsVirtualThreads();
+        if (virtualThreads && !this.virtualThreads) {
+            log.warn("[{}] Virtual threads are not supported on Java {}, falling back to platform threads",
+                    name, Runtime.version().feature());
+        }
+
+        Gauge.builder("partition.executor.queued", queued, AtomicInteger::get)
+                .description("Partitions submitted but not yet running")
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("partition.executor.active", active, AtomicInteger::get)
+                .description("Partitions currently running")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    /*
+     * 💀 TaskExecutorPartitionHandler.doHandle()과 같은 흐름이다. 실행기만 이번 실행 전용으로 만든다 💀
+     */
+    @Override
+    protected Set<StepExecution> doHandle(StepExecution managerStepExecution,
+                                          Set<StepExecution> partitionStepExecutions) throws Exception {
+        Assert.notNull(getStep(), "A Step must be provided.");
+        TaskExecutor executor = createExecutor(partitionStepExecutions.size());
+        try {
+            Set<Future<StepExecution>> tasks = new HashSet<>(partitionStepExecutions.size());
+            Set<StepExecution> result = new HashSet<>();
+            for (StepExecution stepExecution : partitionStepExecutions) {
+                FutureTask<StepExecution> task = createTask(getStep(), stepExecution);
+                try {
+                    executor.execute(task);
+                    tasks.add(task);
+                } catch (TaskRejectedException e) {
+                    result.add(rejected(stepExecution));
+                }
+            }
+            for (Future<StepExecution> task : tasks) {
+                result.add(task.get());
+            }
+            return result;
+        } finally {
+            shutdown(executor);
+        }
+    }
+
+    /*
+     * 💀 이번 실행의 파티션 수에 맞는 실행기를 새로 만든다. 다 쓰면 shutdown()으로 닫는다 💀
+     */
+    protected TaskExecutor createExecutor(int partitionCount) {
+        int partitions = Math.max(1, partitionCount);
+
+        if (virtualThreads) {
+            int concurrency = Math.min(partitions, maxConcurrency);
+            BoundedVirtualThreadTaskExecutor virtualExecutor =
+                    new BoundedVirtualThreadTaskExecutor(name + "-", concurrency);
+            virtualExecutor.setTaskDecorator(gaugeDecorator());
+            log.info("[{}] Running {} partitions on virtual threads (concurrency {})", name, partitions, concurrency);
+            return virtualExecutor;
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        int concurrency = Math.min(partitions, Math.min(cores, maxConcurrency));
+        ThreadPoolTaskExecutor platformExecutor = new ThreadPoolTaskExecutor();
+        platformExecutor.setCorePoolSize(concurrency);
+        platformExecutor.setMaxPoolSize(concurrency);
+        platformExecutor.setThreadNamePrefix(name + "-");
+        platformExecutor.setTaskDecorator(gaugeDecorator());
+        platformExecutor.initialize();
+        log.info("[{}] Running {} partitions on {} threads ({} cores, cap {})",
+                name, partitions, concurrency, cores, maxConcurrency);
+        return platformExecutor;
+    }
+
+    /*
+     * 💀 doHandle()이 끝나면 호출한다. 이미 제출된 파티션은 끝날 때까지 기다렸으므로 바로 닫는다 💀
+     */
+    protected void shutdown(TaskExecutor executor) {
+        if (executor instanceof ThreadPoolTaskExecutor platformExecutor) {
+            platformExecutor.shutdown();
+        }
+    }
+
+    /*
+     * 💀 실행기가 거절한 파티션. TaskExecutorPartitionHandler와 같은 상태로 표시해 돌려준다 💀
+     */
+    protected StepExecution rejected(StepExecution stepExecution) {
+        log.warn("[{}] TaskExecutor rejected partition {}", name, stepExecution.getStepName());
+        stepExecution.setStatus(BatchStatus.FAILED);
+        stepExecution.setExitStatus(ExitStatus.FAILED.addExitDescription("TaskExecutor rejected the task for this step."));
+        return stepExecution;
+    }
+
+    private TaskDecorator gaugeDecorator() {
+        return task -> {
+            queued.incrementAndGet();
+            return () -> {
+                queued.decrementAndGet();
+                active.incrementAndGet();
+                try {
+                    task.run();
+                } finally {
+                    active.decrementAndGet();
+                }
+            };
+        };
+    }
+
+    private static boolean supportsVirtualThreads() {
+        return BoundedVirtualThreadTaskExecutor.isSupported();
+    }
+}
@@ -0,0 +1,152 @@
+package com.system.batch.killbatchsystem.partitional;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/*
+ * 'cat *.out > merged' 를 대신하는 JVM 내부 병합 Tasklet
+ * - 파일 이름 순으로 정렬한 파티션 출력(*.out)을 FileChannel.transferTo로 이어 붙인다. (zero-copy)
+ * - 한 번의 execute()는 최대 bytesPerExecution 만큼만 옮기고 CONTINUABLE을 반환한다.
+ *   매 호출이 끝날 때마다 현재 파일 번호/오프셋이 StepExecution의 ExecutionContext에 커밋되므로,
+ *   도중에 죽어도 재시작 시 병합 파일을 커밋된 길이로 잘라낸 뒤 그 지점부터 이어서 옮긴다.
+ * - 모든 파일을 옮기고 나면 파일별 크기와 CRC32C를 담은 manifest를 남긴다.
+ */
+@Slf4j
+public class FileMergeTasklet implements Tasklet {
+    private static final String FILE_INDEX_KEY = "merge.fileIndex";
+    private static final String FILE_OFFSET_KEY = "merge.fileOffset";
+    private static final String OUTPUT_SIZE_KEY = "merge.outputSize";
+    private static final String CHECKSUMS_KEY = "merge.checksums";
+
+    private final Path directory;
+    private final String inputGlob;
+    private final Path outputFile;
+    private final Path manifestFile;
+    private final long bytesPerExecution;
+
+    public FileMergeTasklet(Path directory, String inputGlob, String outputFileName, long bytesPerExecution) {
+        Assert.notNull(directory, "directory must not be null");
+        Assert.isTrue(bytesPerExecution > 0, "bytesPerExecution must be greater than zero");
+        this.directory = directory;
+        this.inputGlob = inputGlob;
+        this.outputFile = directory.resolve(outputFileName);
+        this.manifestFile = directory.resolve(outputFileName + ".manifest");
+        this.bytesPerExecution = bytesPerExecution;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        ExecutionContext context = chunkContext.getStepContext().getStepExecution().getExecutionContext();
+        List<Path> inputs = listInputs();
+
+        int fileIndex = context.getInt(FILE_INDEX_KEY, 0);
+        long fileOffset = context.getLong(FILE_OFFSET_KEY, 0L);
+        long outputSize = context.getLong(OUTPUT_SIZE_KEY, 0L);
+        ArrayList<String> checksums = context.containsKey(CHECKSUMS_KEY)
+                ? (ArrayList<String>) context.get(CHECKSUMS_KEY)
+                : new ArrayList<>();
+
+        if (fileIndex == 0 && fileOffset == 0) {
+            log.info("Merging {} files into {}", inputs.size(), outputFile);
+        }
+
+        long budget = bytesPerExecution;
+        try (FileChannel out = FileChannel.open(outputFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // 💀 마지막 커밋 이후에 쓰인 꼬리는 버린다 (재시작 시 중복 방지) 💀
+            out.truncate(outputSize);
+            out.position(outputSize);
+
+            while (budget > 0 && fileIndex < inputs.size()) {
+                Path input = inputs.get(fileIndex);
+                try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+                    long size = in.size();
+                    while (budget > 0 && fileOffset < size) {
+                        long transferred = in.transferTo(fileOffset, Math.min(budget, size - fileOffset), out);
+                        fileOffset += transferred;
+                        outputSize += transferred;
+                        budget -= transferred;
+                    }
+
+                    if (fileOffset >= size) {
+                        checksums.add(input.getFileName() + "," + size + "," + checksum(in, size));
+                        log.info("Merged {} ({} bytes)", input.getFileName(), size);
+                        fileIndex++;
+                        fileOffset = 0;
+                    }
+                }
+            }
+            out.force(false);
+        }
+
+        context.putInt(FILE_INDEX_KEY, fileIndex);
+        context.putLong(FILE_OFFSET_KEY, fileOffset);
+        context.putLong(OUTPUT_SIZE_KEY, outputSize);
+        context.put(CHECKSUMS_KEY, checksums);
+        contribution.incrementWriteCount(bytesPerExecution - budget);
+
+        if (fileIndex < inputs.size()) {
+            return RepeatStatus.CONTINUABLE;
+        }
+
+        writeManifest(checksums, outputSize);
+        log.info("Merge completed: {} ({} bytes)", outputFile, outputSize);
+        return RepeatStatus.FINISHED;
+    }
+
+    /*
+     * 💀 실행할 때마다 같은 순서가 나와야 fileIndex가 의미를 가진다 💀
+     */
+    private List<Path> listInputs() throws IOException {
+        List<Path> inputs = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, inputGlob)) {
+            stream.forEach(inputs::add);
+        }
+        inputs.sort(Comparator.comparing(path -> path.getFileName().toString()));
+        return inputs;
+    }
+
+    private String checksum(FileChannel in, long size) throws IOException {
+        CRC32C crc = new CRC32C();
+        long position = 0;
+        while (position < size) {
+            long length = Math.min(Integer.MAX_VALUE, size - position);
+            MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, position, length);
+            crc.update(buffer);
+            position += length;
+        }
+        return Long.toHexString(crc.getValue());
+    }
+
+    private void writeManifest(List<String> checksums, long outputSize) {
+        List<String> lines = new ArrayList<>();
+        lines.add("# file,bytes,crc32c");
+        lines.addAll(checksums);
+        lines.add("# total," + outputSize);
+        try {
+            Files.write(manifestFile, lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("manifest 작성 실패: " + manifestFile, e);
+        }
+    }
+}
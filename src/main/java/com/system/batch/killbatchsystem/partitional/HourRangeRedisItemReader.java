@@ -0,0 +1,361 @@
+package com.system.batch.killbatchsystem.partitional;
+
+import com.system.batch.killbatchsystem.redis.RedisMultiGetFetcher;
+import com.system.batch.killbatchsystem.redis.ResumableKeyScanner;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.util.Assert;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/*
+ * 파티션의 [startDateTime, endDateTime) 구간에 속한 모든 시간 버킷(logs:yyyyMMddHH:*)을 읽어들이는 Reader
+ * 시간 버킷마다 SCAN 커서를 하나씩 열고, 최대 concurrency개의 커서를 동시에 돌려
+ * 6시간짜리 파티션도 1시간짜리 파티션과 같은 수의 Redis 왕복을 동시에 유지한다.
+ * 스캔된 키는 bounded queue로 모이고, read()를 호출한 스레드가 batchSize개씩 꺼내 MGET으로 값을 가져간다.
+ * 파티션 경계가 정시가 아니면 양 끝 시간 버킷을 이웃 파티션과 함께 읽게 되므로,
+ * timestampExtractor를 지정해 [startDateTime, endDateTime) 밖의 값을 걸러낸다.
+ * 구간 안쪽 버킷의 값은 모두 구간 안이므로 시각은 정시가 아닌 양 끝 버킷에서만 확인한다.
+ * 시각이 없는(null) 값은 어느 파티션 것인지 가릴 수 없으므로 걸러내지 않고 넘긴다. (중복은 Writer가 흡수한다)
+ *
+ * 스캔 스레드는 ClaimableHourRange에서 버킷을 하나씩 가져가므로, 아직 시작하지 않은 버킷은
+ * HourRangeWorkRegistry를 통해 다른 워커가 떼어갈 수 있다. 떼어간 만큼 줄어든 종료 시각은
+ * 청크 커밋마다 ExecutionContext의 endDateTime에 기록되어 재시작 시에도 같은 구간만 다시 읽는다.
+ *
+ * 재시작 체크포인트 (scanProgress: 시간 버킷 → 위치)
+ * 스캔 스레드는 키마다 (버킷, 그 키가 나온 SCAN 페이지의 커서)를 함께 큐에 넣는다.
+ * 한 버킷의 키는 큐에 들어간 순서대로 read()에서 나가므로, read()가 넘긴 마지막 키의 페이지가 곧 그 버킷의 진행 위치다.
+ * - 커서  : 그 커서로 SCAN 한 페이지까지 넘기기 시작했다. 재시작하면 같은 커서로 SCAN 하고 그 페이지를 통째로 다시 넘긴다.
+ * - "DONE": 버킷의 마지막 키까지 넘겼다. 재시작하면 SCAN 하지 않는다.
+ * SCAN이 보장하는 건 "어느 커서부터 이어가면 되는지"뿐이다. 페이지 안의 키 구성과 순서는 보장하지 않으므로
+ * (두 실행 사이에 키가 만료되면 페이지가 줄어든다) 페이지 안의 위치로 건너뛰면 처리하지 않은 키를 놓친다.
+ * 그래서 마지막 페이지는 다시 넘기고, 그만큼 생기는 중복은 Writer가 흡수한다. (UnorderedBulkMongoItemWriter는 중복 _id를 무시한다)
+ */
+@Slf4j
+public class HourRangeRedisItemReader<V> implements ItemStreamReader<V> {
+    private static final DateTimeFormatter HOUR_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHH");
+    private static final ScannedKey END_OF_SCAN = new ScannedKey(null, null, null);
+    private static final String END_DATE_TIME_KEY = "endDateTime";
+    private static final String SCAN_PROGRESS_KEY = "scanProgress";
+    private static final String BUCKET_DONE = "DONE";
+
+    private final ResumableKeyScanner scanner;
+    private final RedisMultiGetFetcher<V> fetcher;
+    private final String keyPrefix;
+    private final LocalDateTime startDateTime;
+    private final LocalDateTime endDateTime;
+    private final long scanCount;
+    private final int concurrency;
+    private final int queueCapacity;
+    private final int batchSize;
+
+    private Function<V, LocalDateTime> timestampExtractor;
+    private HourRangeWorkRegistry workRegistry;
+    private Long stepExecutionId;
+
+    private ClaimableHourRange range;
+    private ExecutorService scanExecutor;
+    private BlockingQueue<ScannedKey> keyQueue;
+    private final AtomicReference<Throwable> scanFailure = new AtomicReference<>();
+    private int runningScanners;
+    private final Deque<FetchedValue<V>> buffer = new ArrayDeque<>();
+
+    // 💀 restoredProgress는 스캔 스레드가 읽기만 하고, progress는 read()를 호출한 스레드만 고친다 💀
+    private Map<String, String> restoredProgress = Map.of();
+    private final HashMap<String, String> progress = new HashMap<>();
+
+    public HourRangeRedisItemReader(RedisTemplate<String, ?> redisTemplate,
+                                    RedisMultiGetFetcher<V> fetcher,
+                                    String keyPrefix,
+                                    LocalDateTime startDateTime,
+                                    LocalDateTime endDateTime,
+                                    long scanCount,
+                                    int concurrency,
+                                    int queueCapacity,
+                                    int batchSize) {
+        this(new ResumableKeyScanner(redisTemplate), fetcher, keyPrefix, startDateTime, endDateTime,
+                scanCount, concurrency, queueCapacity, batchSize);
+    }
+
+    public HourRangeRedisItemReader(ResumableKeyScanner scanner,
+                                    RedisMultiGetFetcher<V> fetcher,
+                                    String keyPrefix,
+                                    LocalDateTime startDateTime,
+                                    LocalDateTime endDateTime,
+                                    long scanCount,
+                                    int concurrency,
+                                    int queueCapacity,
+                                    int batchSize) {
+        Assert.notNull(scanner, "scanner must not be null");
+        Assert.notNull(fetcher, "fetcher must not be null");
+        Assert.notNull(startDateTime, "startDateTime must not be null");
+        Assert.notNull(endDateTime, "endDateTime must not be null");
+        Assert.isTrue(startDateTime.isBefore(endDateTime), "startDateTime must be before endDateTime");
+        Assert.isTrue(concurrency > 0, "concurrency must be greater than zero");
+        Assert.isTrue(queueCapacity > 0, "queueCapacity must be greater than zero");
+        Assert.isTrue(batchSize > 0, "batchSize must be greater than zero");
+        this.scanner = scanner;
+        this.fetcher = fetcher;
+        this.keyPrefix = keyPrefix;
+        this.startDateTime = startDateTime;
+        this.endDateTime = endDateTime;
+        this.scanCount = scanCount;
+        this.concurrency = concurrency;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+    }
+
+    public void setTimestampExtractor(Function<V, LocalDateTime> timestampExtractor) {
+        this.timestampExtractor = timestampExtractor;
+    }
+
+    /*
+     * 💀 지정하면 아직 시작하지 않은 시간 버킷을 다른 워커가 떼어갈 수 있다 💀
+     */
+    public void setWorkRegistry(HourRangeWorkRegistry workRegistry, Long stepExecutionId) {
+        this.workRegistry = workRegistry;
+        this.stepExecutionId = stepExecutionId;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        range = new ClaimableHourRange(startDateTime, endDateTime);
+        scanFailure.set(null);
+        buffer.clear();
+        restoreProgress(executionContext);
+        BlockingQueue<ScannedKey> queue = new ArrayBlockingQueue<>(queueCapacity);
+        keyQueue = queue;
+
+        // 💀 시간 버킷 수보다 많은 스레드는 의미가 없다 💀
+        int threads = Math.min(concurrency, range.unclaimedBuckets());
+        runningScanners = threads;
+        AtomicInteger threadIndex = new AtomicInteger();
+        scanExecutor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "HourScan-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (workRegistry != null) {
+            workRegistry.register(stepExecutionId, range);
+        }
+
+        log.info("Scanning {} hour buckets ({} ~ {}) with {} concurrent cursors, {} resumed from checkpoint",
+                range.unclaimedBuckets(), startDateTime, endDateTime, threads, restoredProgress.size());
+
+        for (int i = 0; i < threads; i++) {
+            CompletableFuture.runAsync(() -> scanClaimedBuckets(queue), scanExecutor);
+        }
+    }
+
+    @Override
+    public V read() throws Exception {
+        while (true) {
+            FetchedValue<V> next = buffer.poll();
+            if (next == null) {
+                if (runningScanners == 0) {
+                    return null;
+                }
+                fill();
+                continue;
+            }
+            // 💀 넘기지 않는 값(만료된 키, 구간 밖 값)도 위치는 전진시켜야 재시작 때 다시 읽지 않는다 💀
+            advance(next.origin());
+            if (next.value() != null && inRange(next.value(), next.origin().bucket())) {
+                return next.value();
+            }
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        // 💀 다른 워커가 떼어간 뒤쪽 구간은 재시작 시에도 다시 읽지 않도록 파티션 종료 시각을 줄여 둔다 💀
+        if (range != null) {
+            executionContext.put(END_DATE_TIME_KEY, range.getEffectiveEndDateTime());
+        }
+        // 💀 read()가 넘긴 아이템까지의 위치다. 이 청크의 Writer가 끝난 뒤 호출되므로 커밋될 내용과 어긋나지 않는다 💀
+        executionContext.put(SCAN_PROGRESS_KEY, new HashMap<>(progress));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void restoreProgress(ExecutionContext executionContext) {
+        progress.clear();
+        Map<String, String> saved = (Map<String, String>) executionContext.get(SCAN_PROGRESS_KEY);
+        restoredProgress = saved == null ? Map.of() : Map.copyOf(saved);
+        progress.putAll(restoredProgress);
+    }
+
+    private void advance(ScannedKey origin) {
+        if (origin.key() == null) {
+            progress.put(origin.bucket(), BUCKET_DONE);
+        } else {
+            progress.put(origin.bucket(), origin.pageCursor());
+        }
+    }
+
+    /*
+     * 💀 큐에서 꺼낸 순서를 그대로 유지해 버퍼에 채운다. 버킷 완료 표시도 제자리에 들어간다 💀
+     */
+    private void fill() throws InterruptedException {
+        List<ScannedKey> scanned = nextKeys();
+        List<String> keys = new ArrayList<>(scanned.size());
+        for (ScannedKey scannedKey : scanned) {
+            if (scannedKey.key() != null) {
+                keys.add(scannedKey.key());
+            }
+        }
+
+        // 💀 SCAN과 MGET 사이에 만료된 키는 null로 돌아온다 💀
+        List<V> values = fetcher.fetchAligned(keys);
+        int valueIndex = 0;
+        for (ScannedKey scannedKey : scanned) {
+            V value = scannedKey.key() != null ? values.get(valueIndex++) : null;
+            buffer.add(new FetchedValue<>(value, scannedKey));
+        }
+    }
+
+    private boolean inRange(V value, String bucket) {
+        if (timestampExtractor == null || !isPartialBucket(bucket)) {
+            return true;
+        }
+        LocalDateTime timestamp = timestampExtractor.apply(value);
+        if (timestamp == null) {
+            log.debug("Value without timestamp in boundary bucket {} passed through", bucket);
+            return true;
+        }
+        return !timestamp.isBefore(startDateTime) && timestamp.isBefore(range.getEffectiveEndDateTime());
+    }
+
+    /*
+     * 💀 정시가 아닌 시작/종료 시각이 걸친 버킷만 이웃 파티션의 값이 섞여 있다 💀
+     */
+    private boolean isPartialBucket(String bucket) {
+        return isPartialHour(startDateTime) && bucket.equals(startDateTime.format(HOUR_FORMATTER))
+                || isPartialHour(range.getEffectiveEndDateTime())
+                && bucket.equals(range.getEffectiveEndDateTime().format(HOUR_FORMATTER));
+    }
+
+    private static boolean isPartialHour(LocalDateTime dateTime) {
+        return !dateTime.equals(dateTime.truncatedTo(ChronoUnit.HOURS));
+    }
+
+    /*
+     * 💀 최소 한 개의 키를 기다린 뒤, 이미 큐에 쌓인 키를 batchSize까지 한 번에 빼낸다 💀
+     */
+    private List<ScannedKey> nextKeys() throws InterruptedException {
+        List<ScannedKey> keys = new ArrayList<>(batchSize);
+        while (keys.isEmpty() && runningScanners > 0) {
+            ScannedKey key = keyQueue.poll(1, TimeUnit.SECONDS);
+            rethrowScanFailure();
+            if (key == null) {
+                continue;
+            }
+            List<ScannedKey> drained = new ArrayList<>(batchSize);
+            drained.add(key);
+            keyQueue.drainTo(drained, batchSize - 1);
+
+            for (ScannedKey drainedKey : drained) {
+                if (drainedKey == END_OF_SCAN) {
+                    runningScanners--;
+                } else {
+                    keys.add(drainedKey);
+                }
+            }
+        }
+        return keys;
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (workRegistry != null) {
+            workRegistry.unregister(stepExecutionId);
+        }
+        if (scanExecutor != null) {
+            scanExecutor.shutdownNow();
+            scanExecutor = null;
+        }
+        keyQueue = null;
+        buffer.clear();
+    }
+
+    private void scanClaimedBuckets(BlockingQueue<ScannedKey> queue) {
+        try {
+            LocalDateTime bucket;
+            while ((bucket = range.claimNext()) != null) {
+                scanBucket(bucket.format(HOUR_FORMATTER), queue);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (RuntimeException e) {
+            log.error("SCAN failed", e);
+            scanFailure.compareAndSet(null, e);
+        }
+
+        try {
+            queue.put(END_OF_SCAN);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+     * 💀 체크포인트가 있으면 저장된 커서의 페이지부터 다시 SCAN 한다. 그 페이지는 앞부분도 건너뛰지 않는다 💀
+     */
+    private void scanBucket(String bucket, BlockingQueue<ScannedKey> queue) throws InterruptedException {
+        String saved = restoredProgress.get(bucket);
+        if (BUCKET_DONE.equals(saved)) {
+            return;
+        }
+        String cursor = saved != null ? saved : ResumableKeyScanner.INITIAL_CURSOR;
+
+        String pattern = keyPrefix + bucket + ":*";
+        ResumableKeyScanner.ScanPage page;
+        do {
+            page = scanner.scan(pattern, cursor, scanCount);
+            for (String key : page.keys()) {
+                queue.put(new ScannedKey(bucket, cursor, key));
+            }
+            cursor = page.nextCursor();
+        } while (!page.finished());
+
+        // 💀 버킷의 마지막 키 뒤에 완료 표시를 넣는다. read()가 여기까지 넘기면 DONE으로 기록된다 💀
+        queue.put(new ScannedKey(bucket, null, null));
+    }
+
+    private void rethrowScanFailure() {
+        Throwable failure = scanFailure.get();
+        if (failure != null) {
+            throw new ItemStreamException("Redis SCAN 실패로 파티션을 중단한다", failure);
+        }
+    }
+
+    /*
+     * 💀 key가 null이면 bucket의 완료 표시 💀
+     */
+    private record ScannedKey(String bucket, String pageCursor, String key) {
+    }
+
+    private record FetchedValue<V>(V value, ScannedKey origin) {
+    }
+}
@@ -0,0 +1,46 @@
+package com.system.batch.killbatchsystem.partitional;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * 실행 중인 시간 범위 파티션(StepExecution id → ClaimableHourRange)을 모아두는 레지스트리
+ * HourRangeRedisItemReader가 open/close 시 등록/해제하고,
+ * WorkStealingPartitionHandler가 놀고 있는 워커에게 줄 구간을 여기서 떼어간다.
+ */
+@Component
+public class HourRangeWorkRegistry {
+    private final Map<Long, ClaimableHourRange> ranges = new ConcurrentHashMap<>();
+
+    public void register(Long stepExecutionId, ClaimableHourRange range) {
+        ranges.put(stepExecutionId, range);
+    }
+
+    public void unregister(Long stepExecutionId) {
+        ranges.remove(stepExecutionId);
+    }
+
+    /*
+     * 💀 시작하지 않은 버킷이 가장 많이 남은 파티션에서 뒤쪽 절반을 떼어낸다 💀
+     */
+    public StolenRange stealFromLargest(int minBuckets) {
+        return ranges.entrySet().stream()
+                .sorted(Comparator.comparingInt(
+                        (Map.Entry<Long, ClaimableHourRange> entry) -> entry.getValue().unclaimedBuckets()).reversed())
+                .map(entry -> {
+                    LocalDateTime[] stolen = entry.getValue().stealUpperHalf(minBuckets);
+                    return stolen == null ? null : new StolenRange(entry.getKey(), stolen[0], stolen[1]);
+                })
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+    }
+
+    public record StolenRange(Long victimStepExecutionId, LocalDateTime startDateTime, LocalDateTime endDateTime) {
+    }
+}
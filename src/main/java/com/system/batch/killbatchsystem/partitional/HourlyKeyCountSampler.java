@@ -0,0 +1,105 @@
+package com.system.batch.killbatchsystem.partitional;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * targetDate 하루 동안 시간대별(00~23시)로 로그 키가 몇 개씩 있는지 추정하는 샘플러
+ * 1. 적재 시점에 관리하는 시간별 카운터(logs:count:yyyyMMddHH)가 모두 있으면 그 값을 그대로 쓴다.
+ * 2. 없으면 logs:yyyyMMddHH:* 모양의 키(logs:yyyyMMdd[0-2][0-9]:*)를 sampleSize개까지만 SCAN 해서 시간대별 비율을 구한다.
+ *    logs:yyyyMMdd:summary 처럼 시간 자리가 없는 키는 패턴에서 빠지고, 그래도 시간이 아닌 키(24시 이상 등)는 세지 않는다.
+ *    SCAN은 해시 슬롯 순서로 키를 돌려주므로 앞부분만 봐도 시간대 분포가 골고루 섞여 있다.
+ */
+@Slf4j
+public class HourlyKeyCountSampler {
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter HOUR_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHH");
+
+    private final StringRedisTemplate redisTemplate;
+    private final String keyPrefix;
+    private final String counterPrefix;
+    private final long sampleSize;
+
+    public HourlyKeyCountSampler(StringRedisTemplate redisTemplate, String keyPrefix, String counterPrefix, long sampleSize) {
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = keyPrefix;
+        this.counterPrefix = counterPrefix;
+        this.sampleSize = sampleSize;
+    }
+
+    public long[] sample(LocalDate targetDate) {
+        long[] counters = readCounters(targetDate);
+        if (counters != null) {
+            log.info("Using ingest counters for {}", targetDate);
+            return counters;
+        }
+        return scanSample(targetDate);
+    }
+
+    private long[] readCounters(LocalDate targetDate) {
+        List<String> counterKeys = new ArrayList<>(24);
+        for (int hour = 0; hour < 24; hour++) {
+            counterKeys.add(counterPrefix + targetDate.atTime(hour, 0).format(HOUR_FORMATTER));
+        }
+
+        List<String> values = redisTemplate.opsForValue().multiGet(counterKeys);
+        if (values == null || values.contains(null)) {
+            return null;
+        }
+
+        long[] counts = new long[24];
+        for (int hour = 0; hour < 24; hour++) {
+            counts[hour] = Long.parseLong(values.get(hour));
+        }
+        return counts;
+    }
+
+    private long[] scanSample(LocalDate targetDate) {
+        long[] counts = new long[24];
+        String datePrefix = keyPrefix + targetDate.format(DATE_FORMATTER);
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(datePrefix + "[0-2][0-9]:*")
+                .count(1000)
+                .build();
+
+        long sampled = 0;
+        long skipped = 0;
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (sampled < sampleSize && cursor.hasNext()) {
+                int hour = hourOf(cursor.next(), datePrefix.length());
+                if (hour < 0) {
+                    skipped++;
+                    continue;
+                }
+                counts[hour]++;
+                sampled++;
+            }
+        }
+
+        log.info("Sampled {} keys for {} ({} non-hourly keys skipped)", sampled, targetDate, skipped);
+        return counts;
+    }
+
+    /*
+     * 💀 logs:yyyyMMddHH:... 에서 HH 두 자리를 읽는다. 시간이 아니면 -1 💀
+     */
+    private static int hourOf(String key, int offset) {
+        if (key.length() < offset + 3 || key.charAt(offset + 2) != ':') {
+            return -1;
+        }
+        int tens = key.charAt(offset) - '0';
+        int ones = key.charAt(offset + 1) - '0';
+        if (tens < 0 || tens > 9 || ones < 0 || ones > 9) {
+            return -1;
+        }
+        int hour = tens * 10 + ones;
+        return hour < 24 ? hour : -1;
+    }
+}
@@ -0,0 +1,299 @@
+package com.system.batch.killbatchsystem.partitional;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.file.transform.FlatFileFormatException;
+import org.springframework.batch.item.file.transform.IncorrectTokenCountException;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/*
+ * DelimitedLineTokenizer → FieldSet → BeanWrapperFieldSetMapper(+PropertyEditor) 경로를 쓰지 않는
+ * BattlefieldLog 전용 고속 CSV Reader
+ * - [startOffset, endOffset) 구간을 windowSize 단위로 메모리 매핑하고 바이트를 직접 훑어 ','와 '\n'을 찾는다.
+ * - 필드는 id,timestamp,region,source,level,category,message 순서로 손으로 묶는다. (리플렉션 없음)
+ * - timestamp는 yyyy-MM-ddTHH:mm:ss 형식이면 숫자를 직접 읽고, 그 외에는 LocalDateTime.parse로 넘긴다.
+ * - region/source/level 처럼 값 종류가 적은 필드는 같은 바이트열에 대해 같은 String을 재사용한다.
+ * - 재시작 시 read.count 만큼 다시 읽지 않고, 마지막으로 커밋된 바이트 위치에서 바로 이어 읽는다.
+ *
+ * 따옴표로 감싼 필드("a,b", "" 이스케이프)는 지원하지만, 필드 안의 줄바꿈은 지원하지 않는다.
+ * 필드 수가 7개가 아니거나 따옴표가 닫히지 않은 줄은 FlatFileItemReader처럼 예외로 실패한다. (조용히 자르지 않는다)
+ */
+public class MappedBattlefieldLogReader extends AbstractItemCountingItemStreamItemReader<BattlefieldLog> {
+    private static final String POSITION_KEY = "position";
+    private static final int FIELD_COUNT = 7;
+    private static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private final Resource resource;
+    private final long startOffset;
+    private final long endOffset;
+    private final boolean skipHeader;
+    private int windowSize = DEFAULT_WINDOW_SIZE;
+
+    private FileChannel channel;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+    private Long restartPosition;
+
+    private byte[] line = new byte[1024];
+    private final int[] fieldStart = new int[FIELD_COUNT];
+    private final int[] fieldEnd = new int[FIELD_COUNT];
+    private final boolean[] fieldQuoted = new boolean[FIELD_COUNT];
+    private final StringCache symbols = new StringCache();
+
+    public MappedBattlefieldLogReader(Resource resource, long startOffset, long endOffset, boolean skipHeader) {
+        Assert.notNull(resource, "resource must not be null");
+        Assert.isTrue(startOffset <= endOffset, "startOffset must not be greater than endOffset");
+        this.resource = resource;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        this.skipHeader = skipHeader;
+    }
+
+    public void setWindowSize(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        String key = getExecutionContextKey(POSITION_KEY);
+        restartPosition = isSaveState() && executionContext.containsKey(key) ? executionContext.getLong(key) : null;
+        super.open(executionContext);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        super.update(executionContext);
+        if (isSaveState()) {
+            executionContext.putLong(getExecutionContextKey(POSITION_KEY), position);
+        }
+    }
+
+    @Override
+    protected void doOpen() throws Exception {
+        channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ);
+        window = null;
+
+        if (restartPosition != null) {
+            position = restartPosition;
+            return;
+        }
+
+        position = startOffset;
+        if (skipHeader && nextLine() < 0) {
+            position = endOffset;
+        }
+    }
+
+    /*
+     * 💀 restartPosition으로 이미 건너뛰었으니 read.count 만큼 다시 읽을 필요가 없다 💀
+     */
+    @Override
+    protected void jumpToItem(int itemIndex) {
+    }
+
+    @Override
+    protected BattlefieldLog doRead() throws Exception {
+        int length = nextLine();
+        if (length < 0) {
+            return null;
+        }
+        splitFields(length);
+
+        return new BattlefieldLog(
+                text(0),
+                timestamp(1),
+                symbol(2),
+                symbol(3),
+                symbol(4),
+                symbol(5),
+                text(6));
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        window = null;
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /*
+     * 💀 다음 줄을 line 배열에 복사하고 길이를 돌려준다. 구간이 끝났으면 -1 💀
+     */
+    private int nextLine() throws Exception {
+        if (position >= endOffset) {
+            return -1;
+        }
+
+        while (true) {
+            if (window == null || position < windowStart || position >= windowStart + window.limit()) {
+                remap(position);
+            }
+
+            int from = (int) (position - windowStart);
+            int limit = window.limit();
+            int newline = -1;
+            for (int i = from; i < limit; i++) {
+                if (window.get(i) == '\n') {
+                    newline = i;
+                    break;
+                }
+            }
+
+            boolean windowReachesEnd = windowStart + limit >= endOffset;
+            if (newline < 0 && !windowReachesEnd) {
+                // 💀 줄이 윈도우 끝에 걸렸다. 줄 시작부터 다시 매핑한다 💀
+                if (from == 0) {
+                    throw new IllegalStateException("Line longer than window size at offset " + position);
+                }
+                remap(position);
+                continue;
+            }
+
+            int lineEnd = newline < 0 ? limit : newline;
+            position = windowStart + (newline < 0 ? limit : newline + 1);
+
+            int length = lineEnd - from;
+            if (length > 0 && window.get(lineEnd - 1) == '\r') {
+                length--;
+            }
+            if (line.length < length) {
+                line = new byte[Math.max(length, line.length * 2)];
+            }
+            window.get(from, line, 0, length);
+            return length;
+        }
+    }
+
+    private void remap(long offset) throws Exception {
+        windowStart = offset;
+        long length = Math.min(windowSize, endOffset - offset);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+    }
+
+    /*
+     * 💀 DelimitedLineTokenizer처럼 필드 수가 FIELD_COUNT가 아니면 IncorrectTokenCountException을 던진다 💀
+     * 따옴표 안 쉼표는 필드의 일부다. 따옴표 없는 message에 쉼표가 있으면 필드가 늘어나 잘리지 않고 실패한다.
+     */
+    private void splitFields(int length) {
+        int field = 0;
+        int i = 0;
+        while (true) {
+            int start;
+            int end;
+            boolean quoted = i < length && line[i] == '"';
+            if (quoted) {
+                start = ++i;
+                while (i < length && !(line[i] == '"' && (i + 1 >= length || line[i + 1] != '"'))) {
+                    i += line[i] == '"' ? 2 : 1;
+                }
+                if (i >= length) {
+                    throw new FlatFileFormatException("Unterminated quoted field " + (field + 1), input(length));
+                }
+                end = i++;
+                if (i < length && line[i] != ',') {
+                    throw new FlatFileFormatException("Unexpected character after quoted field " + (field + 1), input(length));
+                }
+            } else {
+                start = i;
+                while (i < length && line[i] != ',') {
+                    i++;
+                }
+                end = i;
+            }
+
+            if (field < FIELD_COUNT) {
+                fieldStart[field] = start;
+                fieldEnd[field] = end;
+                fieldQuoted[field] = quoted;
+            }
+            field++;
+            if (i >= length) {
+                break;
+            }
+            i++; // 💀 ',' 건너뛰기 💀
+        }
+
+        if (field != FIELD_COUNT) {
+            throw new IncorrectTokenCountException(FIELD_COUNT, field, input(length));
+        }
+    }
+
+    private String input(int length) {
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private String text(int field) {
+        String value = new String(line, fieldStart[field], fieldEnd[field] - fieldStart[field], StandardCharsets.UTF_8);
+        return fieldQuoted[field] ? value.replace("\"\"", "\"") : value;
+    }
+
+    private String symbol(int field) {
+        return fieldQuoted[field] ? text(field) : symbols.get(line, fieldStart[field], fieldEnd[field]);
+    }
+
+    private LocalDateTime timestamp(int field) {
+        int s = fieldStart[field];
+        if (fieldEnd[field] - s != 19 || line[s + 10] != 'T') {
+            return LocalDateTime.parse(text(field));
+        }
+        return LocalDateTime.of(
+                digits(s, 4), digits(s + 5, 2), digits(s + 8, 2),
+                digits(s + 11, 2), digits(s + 14, 2), digits(s + 17, 2));
+    }
+
+    private int digits(int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int digit = line[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalStateException("Invalid timestamp digit at " + i);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /*
+     * 💀 종류가 적은 값(region, source, level, category)을 위한 작은 open-addressing 캐시 💀
+     * 같은 바이트열이면 새 String을 만들지 않고 이전 것을 돌려준다.
+     */
+    private static final class StringCache {
+        private static final int CAPACITY = 256;
+        private final byte[][] keys = new byte[CAPACITY][];
+        private final String[] values = new String[CAPACITY];
+
+        String get(byte[] source, int from, int to) {
+            int hash = 1;
+            for (int i = from; i < to; i++) {
+                hash = 31 * hash + source[i];
+            }
+            int slot = hash & (CAPACITY - 1);
+            for (int probe = 0; probe < CAPACITY; probe++) {
+                int index = (slot + probe) & (CAPACITY - 1);
+                byte[] key = keys[index];
+                if (key == null) {
+                    keys[index] = Arrays.copyOfRange(source, from, to);
+                    values[index] = new String(source, from, to - from, StandardCharsets.UTF_8);
+                    return values[index];
+                }
+                if (Arrays.equals(key, 0, key.length, source, from, to)) {
+                    return values[index];
+                }
+            }
+            // 💀 캐시가 가득 찼다면 종류가 적은 필드가 아니다. 그냥 새로 만든다 💀
+            return new String(source, from, to - from, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.system.batch.killbatchsystem.partitional;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/*
+ * 먼저 끝난 워커에게 느린 시간 범위 파티션의 "아직 시작하지 않은 시간 버킷"을 떼어주는 PartitionHandler
+ * 1. 파티션 하나가 끝날 때마다 HourRangeWorkRegistry에서 시작 전 버킷이 가장 많은 파티션의 뒤쪽 절반을 떼어낸다.
+ * 2. 떼어낸 구간으로 새 파티션 StepExecution(이름: 원래이름@시작시각)을 만들어 JobRepository에 등록하고 바로 실행한다.
+ *    떼인 파티션은 줄어든 endDateTime을 청크 커밋마다 자기 ExecutionContext에 기록한다. (HourRangeRedisItemReader)
+ * 3. 재시작 시에는 이전 실행에서 만들어졌지만 COMPLETED가 되지 못한 떼어낸 파티션들도 다시 실행한다.
+ * 실행기가 거절한 파티션은 TaskExecutorPartitionHandler와 같이 FAILED로 돌려주고, 끝난 파티션으로 센다.
+ *
+ * 떼인 파티션이 줄어든 endDateTime을 커밋하기 전에 죽으면 재시작 때 일부 버킷을 두 파티션이 함께 읽을 수 있다.
+ * 이 경우에도 mongoLogWriter가 중복 _id를 이미 저장된 것으로 처리하므로 결과는 같다.
+ */
+@Slf4j
+public class WorkStealingPartitionHandler extends ElasticPartitionHandler {
+    private static final String STOLEN_SEPARATOR = "@";
+
+    private final HourRangeWorkRegistry workRegistry;
+    private final JobRepository jobRepository;
+    private final JobExplorer jobExplorer;
+    private int minStealBuckets = 2;
+
+    public WorkStealingPartitionHandler(String name, int maxConcurrency, boolean virtualThreads,
+                                        HourRangeWorkRegistry workRegistry,
+                                        JobRepository jobRepository,
+                                        JobExplorer jobExplorer,
+                                        MeterRegistry meterRegistry) {
+        super(name, maxConcurrency, virtualThreads, meterRegistry);
+        this.workRegistry = workRegistry;
+        this.jobRepository = jobRepository;
+        this.jobExplorer = jobExplorer;
+    }
+
+    public void setMinStealBuckets(int minStealBuckets) {
+        this.minStealBuckets = minStealBuckets;
+    }
+
+    @Override
+    protected Set<StepExecution> doHandle(StepExecution managerStepExecution,
+                                          Set<StepExecution> partitionStepExecutions) throws Exception {
+        Set<StepExecution> executions = new HashSet<>(partitionStepExecutions);
+        executions.addAll(restoreStolenPartitions(managerStepExecution));
+
+        TaskExecutor executor = createExecutor(executions.size());
+        BlockingQueue<StepExecution> finished = new LinkedBlockingQueue<>();
+        Map<Long, Throwable> failures = new HashMap<>();
+
+        try {
+            int running = 0;
+            for (StepExecution execution : executions) {
+                if (submit(executor, execution, finished, failures)) {
+                    running++;
+                }
+            }
+
+            while (running > 0) {
+                finished.take();
+                running--;
+
+                // 💀 방금 스레드 하나가 놀게 됐다. 느린 파티션의 남은 버킷을 떼어 준다 💀
+                StepExecution stolen = steal(managerStepExecution.getJobExecution(), executions);
+                if (stolen != null) {
+                    executions.add(stolen);
+                    if (submit(executor, stolen, finished, failures)) {
+                        running++;
+                    }
+                }
+            }
+        } finally {
+            shutdown(executor);
+        }
+
+        synchronized (failures) {
+            if (!failures.isEmpty()) {
+                Throwable failure = failures.values().iterator().next();
+                throw failure instanceof Exception e ? e : new IllegalStateException(failure);
+            }
+        }
+        return executions;
+    }
+
+    /*
+     * 💀 실행기가 거절하면 FAILED로 표시하고 false. 기다릴 파티션이 아니다 💀
+     */
+    private boolean submit(TaskExecutor executor, StepExecution execution,
+                           BlockingQueue<StepExecution> finished, Map<Long, Throwable> failures) {
+        Step step = getStep();
+        try {
+            executor.execute(() -> {
+                try {
+                    step.execute(execution);
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.put(execution.getId(), e);
+                    }
+                } finally {
+                    finished.add(execution);
+                }
+            });
+            return true;
+        } catch (TaskRejectedException e) {
+            rejected(execution);
+            return false;
+        }
+    }
+
+    private StepExecution steal(JobExecution jobExecution, Set<StepExecution> executions) {
+        HourRangeWorkRegistry.StolenRange stolen = workRegistry.stealFromLargest(minStealBuckets);
+        if (stolen == null) {
+            return null;
+        }
+
+        String victimName = executions.stream()
+                .filter(execution -> execution.getId().equals(stolen.victimStepExecutionId()))
+                .map(StepExecution::getStepName)
+                .findFirst()
+                .orElse(getStep().getName() + ":partition");
+        String baseName = victimName.contains(STOLEN_SEPARATOR)
+                ? victimName.substring(0, victimName.indexOf(STOLEN_SEPARATOR))
+                : victimName;
+
+        ExecutionContext context = new ExecutionContext();
+        context.put("startDateTime", stolen.startDateTime());
+        context.put("endDateTime", stolen.endDateTime());
+        StepExecution execution = createStepExecution(jobExecution, baseName + STOLEN_SEPARATOR + stolen.startDateTime(), context);
+
+        log.info("Stole [{}, {}) from {} → {}", stolen.startDateTime(), stolen.endDateTime(),
+                victimName, execution.getStepName());
+        return execution;
+    }
+
+    /*
+     * 💀 재시작이면 직전 실행에서 떼어냈지만 끝내지 못한 파티션을 같은 이름/구간으로 되살린다 💀
+     */
+    private Set<StepExecution> restoreStolenPartitions(StepExecution managerStepExecution) {
+        Set<StepExecution> restored = new HashSet<>();
+        JobExecution jobExecution = managerStepExecution.getJobExecution();
+        JobInstance jobInstance = jobExecution.getJobInstance();
+        String prefix = getStep().getName() + ":";
+
+        List<JobExecution> previousExecutions = jobExplorer.getJobExecutions(jobInstance);
+        Set<String> seen = new HashSet<>();
+        for (JobExecution previous : previousExecutions) {
+            if (previous.getId().equals(jobExecution.getId())) {
+                continue;
+            }
+            for (StepExecution partition : previous.getStepExecutions()) {
+                String stepName = partition.getStepName();
+                if (!stepName.startsWith(prefix) || !stepName.contains(STOLEN_SEPARATOR) || !seen.add(stepName)) {
+                    continue;
+                }
+                StepExecution last = jobRepository.getLastStepExecution(jobInstance, stepName);
+                if (last != null && last.getStatus() != BatchStatus.COMPLETED) {
+                    restored.add(createStepExecution(jobExecution, stepName,
+                            new ExecutionContext(last.getExecutionContext())));
+                    log.info("Restoring stolen partition {}", stepName);
+                }
+            }
+        }
+        return restored;
+    }
+
+    private StepExecution createStepExecution(JobExecution jobExecution, String stepName, ExecutionContext context) {
+        StepExecution execution = jobExecution.createStepExecution(stepName);
+        execution.setExecutionContext(context);
+        jobRepository.add(execution);
+        return execution;
+    }
+
+}
@@ -3,6 +3,7 @@ package com.system.batch.killbatchsystem.redis;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,26 +13,31 @@ import org.springframework.batch.core.Step;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
-import org.springframework.batch.item.redis.RedisItemWriter;
-import org.springframework.batch.item.redis.builder.RedisItemWriterBuilder;
 import org.springframework.batch.item.support.ListItemReader;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 
 //@Configuration
 @RequiredArgsConstructor
 public class AttackerBlockListJob {
+    private static final Duration BLOCK_RETENTION = Duration.ofDays(30);
+    // 💀 attacker:{id} 와 겹치지 않는 키. 지우면 다음 실행에서 모든 공격자를 다시 쓴다 💀
+    private static final String BLOCK_LIST_DIGEST_KEY = "blocklist:digest";
+
     private final RedisConnectionFactory redisConnectionFactory;
     private final JobRepository jobRepository;
     private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
 
     @Bean
     public Job registerAttackerBlockListJob() {
@@ -43,7 +49,7 @@ public class AttackerBlockListJob {
     @Bean
     public Step registerAttackerBlockListStep() {
         return new StepBuilder("registerAttackerBlockListStep", jobRepository)
-                .<AttackerInfo, AttackerInfo>chunk(10, transactionManager)
+                .<AttackerInfo, AttackerInfo>chunk(1000, transactionManager) // 💀 파이프라인 한 번에 보낼 아이템 수 💀
                 .reader(attackerInfoReader())
                 .writer(attackerInfoWriter())
                 .build();
@@ -59,23 +65,44 @@ public class AttackerBlockListJob {
     }
 
     @Bean
-    public RedisItemWriter<String, AttackerInfo> attackerInfoWriter() {
+    public RedisPipelineItemWriter<AttackerInfo> attackerInfoWriter() {
         // JavaTimeModule 지원을 위한 ObjectMapper 설정
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
         objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
 
+        // 💀 기존 JSON 값도 읽을 수 있는 바이너리 codec. 새로 쓰는 값은 바이너리다 💀
+        RedisSerializer<AttackerInfo> valueSerializer = CompactBinaryRedisSerializer.builder(AttackerInfo.class, AttackerInfo::new)
+                .legacyCodec(new Jackson2JsonRedisSerializer<>(objectMapper, AttackerInfo.class))
+                .string(AttackerInfo::getId, AttackerInfo::setId)
+                .dictionary(AttackerInfo::getOriginalAttack, AttackerInfo::setOriginalAttack,
+                        "SQL Injection", "DDoS", "XSS")
+                .dictionary(AttackerInfo::getThreatLevel, AttackerInfo::setThreatLevel,
+                        "CRITICAL", "HIGH", "MEDIUM", "LOW")
+                .string(AttackerInfo::getDescription, AttackerInfo::setDescription)
+                .string(AttackerInfo::getLastKnownIp, AttackerInfo::setLastKnownIp)
+                .timestamp(AttackerInfo::getDetectedAt, AttackerInfo::setDetectedAt)
+                .build();
+
         RedisTemplate<String, AttackerInfo> template = new RedisTemplate<>();
         template.setConnectionFactory(redisConnectionFactory);
         template.setKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(new Jackson2JsonRedisSerializer<>(objectMapper, AttackerInfo.class));
+        template.setValueSerializer(valueSerializer);
         template.afterPropertiesSet();
 
-        return new RedisItemWriterBuilder<String, AttackerInfo>()
-                .redisTemplate(template)
-                .itemKeyMapper(attackerInfo -> "attacker:" + attackerInfo.getId())
-                .delete(false)
-                .build();
+        // 💀 청크 전체를 파이프라인 한 번으로 보낸다. 탐지 후 BLOCK_RETENTION이 지난 공격자는 스스로 풀려난다 💀
+        RedisPipelineItemWriter<AttackerInfo> writer = new RedisPipelineItemWriter<>(
+                "attackerInfoWriter",
+                template,
+                attackerInfo -> "attacker:" + attackerInfo.getId(),
+                valueSerializer,
+                meterRegistry);
+        writer.setTtlFunction(attackerInfo -> attackerInfo.getDetectedAt() == null
+                ? null
+                : Duration.between(LocalDateTime.now(), attackerInfo.getDetectedAt().plus(BLOCK_RETENTION)));
+        // 💀 만료 시각이 detectedAt으로 정해지므로, 값이 그대로인 공격자는 다시 쓰지 않아도 TTL이 같다 💀
+        writer.setChangeIndexKey(BLOCK_LIST_DIGEST_KEY);
+        return writer;
     }
 
     @Data
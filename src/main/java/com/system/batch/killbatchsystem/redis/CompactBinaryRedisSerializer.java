@@ -0,0 +1,375 @@
+package com.system.batch.killbatchsystem.redis;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/*
+ * 필드 목록(스키마)을 코드로 정해 두고 그 순서대로 바이너리로 쓰는 RedisSerializer
+ * JSON은 값마다 필드 이름을 반복하고, LocalDateTime을 ISO 문자열로, region/level 같은 몇 가지뿐인 값도 문자열 그대로 쓴다.
+ *
+ * 포맷: [MAGIC][스키마 버전][null 비트맵 varint][null이 아닌 필드들을 스키마 순서대로]
+ * - string       : varint 길이 + UTF-8
+ * - dictionary   : varint 코드 (0이면 사전에 없는 값, 뒤에 string) — 사전은 뒤에 추가만 해야 한다
+ * - timestamp    : zigzag varint epoch 초(UTC 기준 환산) + varint 나노초
+ * - isoTimestamp : ISO 문자열 필드. 문자열로 되돌렸을 때 똑같으면 timestamp처럼, 아니면 string으로 쓴다
+ * - longValue    : zigzag varint
+ *
+ * 첫 바이트가 MAGIC이 아니면 기존 포맷으로 보고 legacyCodec(JSON)으로 읽는다. (UTF-8 JSON은 0xC5로 시작할 수 없다)
+ * 그래서 Redis에 JSON과 바이너리가 섞여 있는 마이그레이션 기간에도 그대로 읽을 수 있다. 쓰기는 항상 바이너리다.
+ * 필드를 추가/삭제하거나 순서를 바꾸면 version을 올려야 한다. 다른 버전의 바이너리는 읽지 않고 예외를 던진다.
+ */
+public class CompactBinaryRedisSerializer<T> implements RedisSerializer<T> {
+    private static final byte MAGIC = (byte) 0xC5;
+    private static final int MAX_FIELDS = 64;
+
+    private final Supplier<T> factory;
+    private final List<FieldCodec<T, ?>> fields;
+    private final byte version;
+    private final RedisSerializer<T> legacyCodec;
+
+    private CompactBinaryRedisSerializer(Builder<T> builder) {
+        this.factory = builder.factory;
+        this.fields = List.copyOf(builder.fields);
+        this.version = (byte) builder.version;
+        this.legacyCodec = builder.legacyCodec;
+    }
+
+    /*
+     * 💀 type은 제네릭 추론용이다. (생성자가 여럿인 클래스의 ::new만으로는 T가 정해지지 않는다) 💀
+     */
+    public static <T> Builder<T> builder(Class<T> type, Supplier<T> factory) {
+        return new Builder<>(factory);
+    }
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        Output out = new Output();
+        out.writeByte(MAGIC);
+        out.writeByte(version);
+
+        long nullBits = 0;
+        for (int i = 0; i < fields.size(); i++) {
+            if (fields.get(i).isNull(value)) {
+                nullBits |= 1L << i;
+            }
+        }
+        out.writeVarLong(nullBits);
+        for (int i = 0; i < fields.size(); i++) {
+            if ((nullBits & (1L << i)) == 0) {
+                fields.get(i).write(value, out);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            if (legacyCodec == null) {
+                throw new SerializationException("Not a compact binary value and no legacy codec is configured");
+            }
+            return legacyCodec.deserialize(bytes);
+        }
+
+        try {
+            Input in = new Input(bytes, 1);
+            byte actualVersion = in.readByte();
+            if (actualVersion != version) {
+                throw new SerializationException("Unsupported schema version " + actualVersion + ", expected " + version);
+            }
+            long nullBits = in.readVarLong();
+            T value = factory.get();
+            for (int i = 0; i < fields.size(); i++) {
+                if ((nullBits & (1L << i)) == 0) {
+                    fields.get(i).read(value, in);
+                }
+            }
+            return value;
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new SerializationException("Truncated compact binary value", e);
+        }
+    }
+
+    public static final class Builder<T> {
+        private final Supplier<T> factory;
+        private final List<FieldCodec<T, ?>> fields = new ArrayList<>();
+        private int version = 1;
+        private RedisSerializer<T> legacyCodec;
+
+        private Builder(Supplier<T> factory) {
+            Assert.notNull(factory, "factory must not be null");
+            this.factory = factory;
+        }
+
+        public Builder<T> version(int version) {
+            Assert.isTrue(version > 0 && version < 128, "version must be between 1 and 127");
+            this.version = version;
+            return this;
+        }
+
+        /*
+         * 💀 MAGIC으로 시작하지 않는 값(기존 JSON)을 읽을 때 쓴다 💀
+         */
+        public Builder<T> legacyCodec(RedisSerializer<T> legacyCodec) {
+            this.legacyCodec = legacyCodec;
+            return this;
+        }
+
+        public Builder<T> string(Function<T, String> getter, BiConsumer<T, String> setter) {
+            return field(new FieldCodec<T, String>(getter, setter) {
+                @Override
+                void encode(String value, Output out) {
+                    out.writeString(value);
+                }
+
+                @Override
+                String decode(Input in) {
+                    return in.readString();
+                }
+            });
+        }
+
+        public Builder<T> dictionary(Function<T, String> getter, BiConsumer<T, String> setter, String... values) {
+            String[] dictionary = values.clone();
+            Map<String, Integer> codes = new HashMap<>();
+            for (int i = 0; i < dictionary.length; i++) {
+                codes.put(dictionary[i], i + 1);
+            }
+            return field(new FieldCodec<T, String>(getter, setter) {
+                @Override
+                void encode(String value, Output out) {
+                    Integer code = codes.get(value);
+                    if (code != null) {
+                        out.writeVarLong(code);
+                    } else {
+                        out.writeVarLong(0);
+                        out.writeString(value);
+                    }
+                }
+
+                @Override
+                String decode(Input in) {
+                    int code = (int) in.readVarLong();
+                    if (code == 0) {
+                        return in.readString();
+                    }
+                    if (code > dictionary.length) {
+                        throw new SerializationException("Unknown dictionary code " + code + " in " + Arrays.toString(dictionary));
+                    }
+                    return dictionary[code - 1];
+                }
+            });
+        }
+
+        public Builder<T> timestamp(Function<T, LocalDateTime> getter, BiConsumer<T, LocalDateTime> setter) {
+            return field(new FieldCodec<T, LocalDateTime>(getter, setter) {
+                @Override
+                void encode(LocalDateTime value, Output out) {
+                    writeTimestamp(value, out);
+                }
+
+                @Override
+                LocalDateTime decode(Input in) {
+                    return readTimestamp(in);
+                }
+            });
+        }
+
+        public Builder<T> isoTimestamp(Function<T, String> getter, BiConsumer<T, String> setter) {
+            return field(new FieldCodec<T, String>(getter, setter) {
+                @Override
+                void encode(String value, Output out) {
+                    LocalDateTime timestamp = parseExactly(value);
+                    if (timestamp != null) {
+                        out.writeByte((byte) 1);
+                        writeTimestamp(timestamp, out);
+                    } else {
+                        out.writeByte((byte) 0);
+                        out.writeString(value);
+                    }
+                }
+
+                @Override
+                String decode(Input in) {
+                    return in.readByte() == 1 ? readTimestamp(in).toString() : in.readString();
+                }
+            });
+        }
+
+        public Builder<T> longValue(Function<T, Long> getter, BiConsumer<T, Long> setter) {
+            return field(new FieldCodec<T, Long>(getter, setter) {
+                @Override
+                void encode(Long value, Output out) {
+                    out.writeZigZag(value);
+                }
+
+                @Override
+                Long decode(Input in) {
+                    return in.readZigZag();
+                }
+            });
+        }
+
+        public CompactBinaryRedisSerializer<T> build() {
+            Assert.notEmpty(fields, "at least one field is required");
+            return new CompactBinaryRedisSerializer<>(this);
+        }
+
+        private Builder<T> field(FieldCodec<T, ?> field) {
+            Assert.state(fields.size() < MAX_FIELDS, "at most " + MAX_FIELDS + " fields are supported");
+            fields.add(field);
+            return this;
+        }
+
+        private static void writeTimestamp(LocalDateTime value, Output out) {
+            out.writeZigZag(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeVarLong(value.getNano());
+        }
+
+        private static LocalDateTime readTimestamp(Input in) {
+            long epochSecond = in.readZigZag();
+            int nano = (int) in.readVarLong();
+            return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+        }
+
+        // 💀 다시 문자열로 만들었을 때 원본과 같을 때만 숫자로 줄인다 (초가 0인 "10:00:00" 같은 표기는 그대로 둔다) 💀
+        private static LocalDateTime parseExactly(String value) {
+            try {
+                LocalDateTime timestamp = LocalDateTime.parse(value);
+                return timestamp.toString().equals(value) ? timestamp : null;
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+    }
+
+    private abstract static class FieldCodec<T, V> {
+        private final Function<T, V> getter;
+        private final BiConsumer<T, V> setter;
+
+        FieldCodec(Function<T, V> getter, BiConsumer<T, V> setter) {
+            Assert.notNull(getter, "getter must not be null");
+            Assert.notNull(setter, "setter must not be null");
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        boolean isNull(T target) {
+            return getter.apply(target) == null;
+        }
+
+        void write(T target, Output out) {
+            encode(getter.apply(target), out);
+        }
+
+        void read(T target, Input in) {
+            setter.accept(target, decode(in));
+        }
+
+        abstract void encode(V value, Output out);
+
+        abstract V decode(Input in);
+    }
+
+    private static final class Output {
+        private byte[] buffer = new byte[64];
+        private int size;
+
+        void writeByte(byte value) {
+            ensure(1);
+            buffer[size++] = value;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void writeZigZag(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+
+    private static final class Input {
+        private final byte[] buffer;
+        private int position;
+
+        Input(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        byte readByte() {
+            return buffer[position++];
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new SerializationException("Malformed varint");
+        }
+
+        long readZigZag() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        String readString() {
+            int length = (int) readVarLong();
+            if (length < 0 || position + length > buffer.length) {
+                throw new SerializationException("Invalid string length " + length);
+            }
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
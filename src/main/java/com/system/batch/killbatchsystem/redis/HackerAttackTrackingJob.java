@@ -10,14 +10,16 @@ import org.springframework.batch.core.Step;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
-import org.springframework.batch.item.redis.RedisItemReader;
-import org.springframework.batch.item.redis.builder.RedisItemReaderBuilder;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.transaction.PlatformTransactionManager;
 
@@ -32,35 +34,71 @@ public class HackerAttackTrackingJob {
     @Bean
     public Job trackHackerAttackJob() {
         return new JobBuilder("trackHackerAttackJob", jobRepository)
-                .start(trackHackerAttackStep())
+                .start(trackHackerAttackStep(null))
                 .build();
     }
 
     @Bean
-    public Step trackHackerAttackStep() {
+    public Step trackHackerAttackStep(ItemStreamReader<AttackLog> attackLogReader) {
         return new StepBuilder("trackHackerAttackStep", jobRepository)
                 .<AttackLog, AttackLog>chunk(10, transactionManager)
-                .reader(attackLogReader())
+                .reader(attackLogReader)
                 .writer(items -> items.forEach(attackLog ->
                         log.info("[공격 감지] {}", attackLog)))
                 .build();
     }
 
     @Bean
-    public RedisItemReader<String, AttackLog> attackLogReader() {
+    public ItemStreamReader<AttackLog> attackLogReader(
+            @Value("${batch.attack-tracking.source:stream}") String source) {
+        // 💀 stream: 지난 실행 이후 추가된 공격 이벤트만 | scan: attack:* 키 전체 (스트림 도입 전 데이터 백필용) 💀
+        return "scan".equals(source) ? attackLogScanReader() : attackLogStreamReader();
+    }
+
+    private RedisStreamItemReader<AttackLog> attackLogStreamReader() {
+        StringRedisTemplate template = new StringRedisTemplate(redisConnectionFactory);
+
+        RedisStreamItemReader<AttackLog> reader = new RedisStreamItemReader<>(
+                template,
+                "attack-events",            // XADD attack-events * timestamp ... targetIp ... attackType ... payload ...
+                "hacker-attack-tracker",
+                "trackHackerAttackStep",    // 💀 pending 엔트리의 주인. 재시작해도 같은 이름이어야 한다 💀
+                fields -> new AttackLog(
+                        fields.get("timestamp"),
+                        fields.get("targetIp"),
+                        fields.get("attackType"),
+                        fields.get("payload")));
+        reader.setName("attackLogStreamReader");
+        reader.setBatchSize(100);
+        return reader;
+    }
+
+    private RedisMultiGetItemReader<AttackLog> attackLogScanReader() {
+        // 💀 공격 로그는 JSON에서 바이너리로 옮겨 가는 중이다. 둘 다 읽는다 💀
+        RedisSerializer<AttackLog> codec = CompactBinaryRedisSerializer.builder(AttackLog.class, AttackLog::new)
+                .legacyCodec(new Jackson2JsonRedisSerializer<>(AttackLog.class))
+                .isoTimestamp(AttackLog::getTimestamp, AttackLog::setTimestamp)
+                .string(AttackLog::getTargetIp, AttackLog::setTargetIp)
+                .dictionary(AttackLog::getAttackType, AttackLog::setAttackType,
+                        "SQL Injection", "DDoS", "XSS")
+                .string(AttackLog::getPayload, AttackLog::setPayload)
+                .build();
+
         RedisTemplate<String, AttackLog> template = new RedisTemplate<>();
         template.setConnectionFactory(redisConnectionFactory);
         template.setKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(new Jackson2JsonRedisSerializer<>(AttackLog.class));
+        template.setValueSerializer(codec);
         template.afterPropertiesSet();
 
-        return new RedisItemReaderBuilder<String, AttackLog>()
-                .redisTemplate(template)
-                .scanOptions(ScanOptions.scanOptions()
+        // 💀 키마다 GET 하던 RedisItemReader 대신 100개씩 모아 MGET 💀
+        return new RedisMultiGetItemReader<>(
+                template,
+                ScanOptions.scanOptions()
                         .match("attack:*")  // attack: 으로 시작하는 키만 스캔
                         .count(100)         // 한 번에 100개씩 스캔
-                        .build())
-                .build();
+                        .build(),
+                new RedisMultiGetFetcher<>(template, codec, 100),
+                100);
     }
 
     @Data
@@ -0,0 +1,72 @@
+package com.system.batch.killbatchsystem.redis;
+
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * 키 목록을 받아 MGET 파이프라인 한 번으로 값을 가져오는 헬퍼
+ * 키를 mgetSize개씩 잘라 MGET을 여러 개 만들고, 이를 하나의 파이프라인으로 전송한다.
+ * 값 디코딩은 주입받은 RedisSerializer(codec)에 맡기므로 JSON/바이너리 등 포맷을 교체할 수 있다.
+ */
+public class RedisMultiGetFetcher<V> {
+    private final RedisTemplate<String, ?> redisTemplate;
+    private final RedisSerializer<V> valueCodec;
+    private final int mgetSize;
+
+    public RedisMultiGetFetcher(RedisTemplate<String, ?> redisTemplate, RedisSerializer<V> valueCodec, int mgetSize) {
+        Assert.notNull(redisTemplate, "redisTemplate must not be null");
+        Assert.notNull(valueCodec, "valueCodec must not be null");
+        Assert.isTrue(mgetSize > 0, "mgetSize must be greater than zero");
+        this.redisTemplate = redisTemplate;
+        this.valueCodec = valueCodec;
+        this.mgetSize = mgetSize;
+    }
+
+    /*
+     * 💀 키 순서대로 값을 반환한다. SCAN 이후 만료/삭제된 키는 결과에서 빠진다 💀
+     */
+    public List<V> fetch(List<String> keys) {
+        List<V> values = new ArrayList<>(keys.size());
+        for (V value : fetchAligned(keys)) {
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    /*
+     * 💀 keys와 같은 크기, 같은 순서로 반환한다. 만료/삭제된 키 자리는 null 💀
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> fetchAligned(List<String> keys) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+
+        RedisSerializer<String> keySerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+        List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int from = 0; from < keys.size(); from += mgetSize) {
+                List<String> slice = keys.subList(from, Math.min(from + mgetSize, keys.size()));
+                byte[][] rawKeys = slice.stream()
+                        .map(keySerializer::serialize)
+                        .toArray(byte[][]::new);
+                connection.stringCommands().mGet(rawKeys);
+            }
+            return null;
+        }, RedisSerializer.byteArray());
+
+        List<V> values = new ArrayList<>(keys.size());
+        for (Object reply : replies) {
+            for (byte[] raw : (List<byte[]>) reply) {
+                values.add(raw == null ? null : valueCodec.deserialize(raw));
+            }
+        }
+        return values;
+    }
+}
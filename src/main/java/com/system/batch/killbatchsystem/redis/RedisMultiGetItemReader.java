@@ -0,0 +1,71 @@
+package com.system.batch.killbatchsystem.redis;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.util.Assert;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/*
+ * RedisItemReader는 SCAN으로 찾은 키마다 GET을 한 번씩 날린다. (키 하나당 왕복 1회)
+ * 이 Reader는 SCAN 커서에서 batchSize개의 키를 모아 RedisMultiGetFetcher로
+ * 파이프라인 MGET을 보내므로, 처리량이 RTT가 아니라 batchSize에 비례한다.
+ */
+public class RedisMultiGetItemReader<V> implements ItemStreamReader<V> {
+    private final RedisTemplate<String, ?> redisTemplate;
+    private final ScanOptions scanOptions;
+    private final RedisMultiGetFetcher<V> fetcher;
+    private final int batchSize;
+
+    private Cursor<String> cursor;
+    private final Deque<V> buffer = new ArrayDeque<>();
+
+    public RedisMultiGetItemReader(RedisTemplate<String, ?> redisTemplate,
+                                   ScanOptions scanOptions,
+                                   RedisMultiGetFetcher<V> fetcher,
+                                   int batchSize) {
+        Assert.notNull(redisTemplate, "redisTemplate must not be null");
+        Assert.notNull(scanOptions, "scanOptions must not be null");
+        Assert.notNull(fetcher, "fetcher must not be null");
+        Assert.isTrue(batchSize > 0, "batchSize must be greater than zero");
+        this.redisTemplate = redisTemplate;
+        this.scanOptions = scanOptions;
+        this.fetcher = fetcher;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        buffer.clear();
+        cursor = redisTemplate.scan(scanOptions);
+    }
+
+    @Override
+    public V read() {
+        // 💀 가져온 키가 전부 만료됐을 수도 있으니 값이 나올 때까지 배치를 채운다 💀
+        while (buffer.isEmpty() && cursor.hasNext()) {
+            List<String> keys = new ArrayList<>(batchSize);
+            while (keys.size() < batchSize && cursor.hasNext()) {
+                keys.add(cursor.next());
+            }
+            buffer.addAll(fetcher.fetch(keys));
+        }
+        return buffer.poll();
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (cursor != null) {
+            cursor.close();
+            cursor = null;
+        }
+        buffer.clear();
+    }
+}
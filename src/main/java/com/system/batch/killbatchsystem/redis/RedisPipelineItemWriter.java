@@ -0,0 +1,235 @@
+package com.system.batch.killbatchsystem.redis;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/*
+ * 청크 하나를 파이프라인 한 번으로 Redis에 쓰는 Writer
+ * RedisItemWriter는 아이템마다 SET 한 번씩 왕복하고 만료 시간도 줄 수 없다.
+ *
+ * - 문자열 모드(기본): TTL이 없는 아이템은 MSET 하나로 묶고, TTL이 있는 아이템은 SET key value PX ttl로 보낸다.
+ * - 해시 모드(hashFieldMapper 지정): 아이템마다 HSET key field value ... 후 TTL이 있으면 PEXPIRE.
+ * - ttlFunction이 0 이하를 돌려주면 이미 만료된 아이템이다. 쓰지 않고 기존 키를 지운다. null이면 만료 없음.
+ *
+ * 청크마다 파이프라인 왕복 시간을 주입받은 MeterRegistry의 타이머(redis.pipeline.write, tag: name)로 기록하고 INFO 로그로도 남긴다.
+ *
+ * 변경 감지(changeIndexKey 지정)
+ * 키마다 마지막으로 쓴 값의 digest(직렬화된 바이트의 SHA-256 앞 8바이트)를 Redis 해시 하나(field: 키)에 남긴다.
+ * 청크마다 HMGET 한 번으로 이전 digest를 가져와, 같으면 그 아이템은 쓰지 않는다. (쓰기 트래픽도 keyspace 알림도 없다)
+ * 쓴 아이템의 digest는 같은 파이프라인에서 데이터 명령 뒤에 갱신하고, 만료돼 지운 키는 인덱스에서도 지운다.
+ * - TTL이 값으로 정해지는 경우(예: 탐지 시각 + 보존 기간)에만 쓴다. 지금 시각 기준으로 TTL을 늘리는 경우엔 건너뛴 키가 먼저 만료된다.
+ * - 데이터 키를 Writer 밖에서 지웠다면 인덱스 해시도 지워야 다음 실행에서 다시 쓴다.
+ * 건너뛴 아이템 수는 같은 MeterRegistry에 redis.pipeline.unchanged(tag: name) 카운터로 남긴다.
+ */
+@Slf4j
+public class RedisPipelineItemWriter<T> implements ItemWriter<T> {
+    private final RedisTemplate<String, ?> redisTemplate;
+    private final Function<? super T, String> keyMapper;
+    private final RedisSerializer<T> valueCodec;
+    private Function<? super T, Duration> ttlFunction = item -> null;
+    private Function<? super T, Map<String, String>> hashFieldMapper;
+    private String changeIndexKey;
+    private final Timer pipelineTimer;
+    private final Counter unchangedCounter;
+    private final String name;
+
+    public RedisPipelineItemWriter(String name, RedisTemplate<String, ?> redisTemplate,
+                                   Function<? super T, String> keyMapper, RedisSerializer<T> valueCodec,
+                                   MeterRegistry meterRegistry) {
+        Assert.hasText(name, "name must not be empty");
+        Assert.notNull(redisTemplate, "redisTemplate must not be null");
+        Assert.notNull(keyMapper, "keyMapper must not be null");
+        Assert.notNull(meterRegistry, "meterRegistry must not be null");
+        this.name = name;
+        this.redisTemplate = redisTemplate;
+        this.keyMapper = keyMapper;
+        this.valueCodec = valueCodec;
+        this.pipelineTimer = Timer.builder("redis.pipeline.write")
+                .tag("name", name)
+                .register(meterRegistry);
+        this.unchangedCounter = Counter.builder("redis.pipeline.unchanged")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    public void setTtlFunction(Function<? super T, Duration> ttlFunction) {
+        this.ttlFunction = ttlFunction;
+    }
+
+    public void setHashFieldMapper(Function<? super T, Map<String, String>> hashFieldMapper) {
+        this.hashFieldMapper = hashFieldMapper;
+    }
+
+    /*
+     * 💀 지정하면 이 키의 해시에 키별 값 digest를 남기고, 값이 그대로인 아이템은 다시 쓰지 않는다 💀
+     */
+    public void setChangeIndexKey(String changeIndexKey) {
+        this.changeIndexKey = changeIndexKey;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void write(Chunk<? extends T> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Assert.state(hashFieldMapper != null || valueCodec != null, "valueCodec or hashFieldMapper must be set");
+        RedisSerializer<String> keySerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+
+        List<Entry> entries = new ArrayList<>(chunk.size());
+        for (T item : chunk) {
+            Duration ttl = ttlFunction.apply(item);
+            boolean expired = ttl != null && (ttl.isNegative() || ttl.isZero());
+            byte[] value = expired || hashFieldMapper != null ? null : valueCodec.serialize(item);
+            Map<byte[], byte[]> fields = expired || hashFieldMapper == null ? null : hashFields(item);
+            byte[] digest = changeIndexKey == null || expired ? null : digest(value, fields);
+            entries.add(new Entry(keySerializer.serialize(keyMapper.apply(item)), ttl, value, fields, digest));
+        }
+        List<Entry> changed = changeIndexKey == null ? entries : changedEntries(entries);
+        int unchanged = entries.size() - changed.size();
+        unchangedCounter.increment(unchanged);
+        if (changed.isEmpty()) {
+            log.debug("[{}] All {} items unchanged", name, entries.size());
+            return;
+        }
+
+        long start = System.nanoTime();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            Map<byte[], byte[]> persistent = new LinkedHashMap<>();
+            List<byte[]> expired = new ArrayList<>();
+            for (Entry entry : changed) {
+                if (entry.isExpired()) {
+                    expired.add(entry.key());
+                } else if (entry.fields() != null) {
+                    connection.hashCommands().hMSet(entry.key(), entry.fields());
+                    if (entry.ttl() != null) {
+                        connection.keyCommands().pExpire(entry.key(), entry.ttl().toMillis());
+                    }
+                } else if (entry.ttl() == null) {
+                    persistent.put(entry.key(), entry.value());
+                } else {
+                    connection.stringCommands().set(entry.key(), entry.value(),
+                            Expiration.milliseconds(entry.ttl().toMillis()), RedisStringCommands.SetOption.upsert());
+                }
+            }
+            if (!persistent.isEmpty()) {
+                connection.stringCommands().mSet(persistent);
+            }
+            if (!expired.isEmpty()) {
+                connection.keyCommands().del(expired.toArray(byte[][]::new));
+            }
+            if (changeIndexKey != null) {
+                updateChangeIndex(connection, changed, expired);
+            }
+            return null;
+        });
+        long elapsed = System.nanoTime() - start;
+
+        pipelineTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("[{}] Pipelined {} items ({} unchanged skipped) in {} ms",
+                name, changed.size(), unchanged, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    /*
+     * 💀 HMGET 한 번으로 이전 digest를 가져와 달라진 아이템만 남긴다. 만료된 아이템은 지워야 하므로 항상 남긴다 💀
+     */
+    private List<Entry> changedEntries(List<Entry> entries) {
+        byte[] indexKey = RedisSerializer.string().serialize(changeIndexKey);
+        byte[][] fields = entries.stream().map(Entry::key).toArray(byte[][]::new);
+        List<byte[]> previous = redisTemplate.execute(
+                (RedisCallback<List<byte[]>>) connection -> connection.hashCommands().hMGet(indexKey, fields));
+
+        List<Entry> changed = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (entry.isExpired() || previous == null || !Arrays.equals(previous.get(i), entry.digest())) {
+                changed.add(entry);
+            }
+        }
+        return changed;
+    }
+
+    private void updateChangeIndex(RedisConnection connection, List<Entry> changed, List<byte[]> expired) {
+        byte[] indexKey = RedisSerializer.string().serialize(changeIndexKey);
+        Map<byte[], byte[]> digests = new LinkedHashMap<>();
+        for (Entry entry : changed) {
+            if (!entry.isExpired()) {
+                digests.put(entry.key(), entry.digest());
+            }
+        }
+        if (!digests.isEmpty()) {
+            connection.hashCommands().hMSet(indexKey, digests);
+        }
+        if (!expired.isEmpty()) {
+            connection.hashCommands().hDel(indexKey, expired.toArray(byte[][]::new));
+        }
+    }
+
+    private Map<byte[], byte[]> hashFields(T item) {
+        Map<byte[], byte[]> fields = new LinkedHashMap<>();
+        hashFieldMapper.apply(item).forEach((field, value) -> {
+            if (value != null) {
+                fields.put(RedisSerializer.string().serialize(field), RedisSerializer.string().serialize(value));
+            }
+        });
+        return fields;
+    }
+
+    /*
+     * 💀 직렬화된 값의 SHA-256 앞 8바이트. 해시 모드는 필드 이름 순으로 정렬해 필드 순서와 무관하게 만든다 💀
+     */
+    private static byte[] digest(byte[] value, Map<byte[], byte[]> fields) {
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        if (value != null) {
+            sha256.update(value);
+        } else {
+            TreeMap<String, byte[]> sorted = new TreeMap<>();
+            fields.forEach((field, fieldValue) -> sorted.put(new String(field, StandardCharsets.UTF_8), fieldValue));
+            sorted.forEach((field, fieldValue) -> {
+                sha256.update(field.getBytes(StandardCharsets.UTF_8));
+                sha256.update((byte) 0);
+                sha256.update(fieldValue);
+                sha256.update((byte) 0);
+            });
+        }
+        return Arrays.copyOf(sha256.digest(), 8);
+    }
+
+    /*
+     * 💀 value(문자열 모드) 또는 fields(해시 모드) 중 하나만 있다. 만료된 아이템은 둘 다 null, digest는 변경 감지 때만 💀
+     */
+    private record Entry(byte[] key, Duration ttl, byte[] value, Map<byte[], byte[]> fields, byte[] digest) {
+        boolean isExpired() {
+            return ttl != null && (ttl.isNegative() || ttl.isZero());
+        }
+    }
+}
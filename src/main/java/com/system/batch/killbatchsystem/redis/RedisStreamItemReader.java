@@ -0,0 +1,251 @@
+package com.system.batch.killbatchsystem.redis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/*
+ * Redis Stream을 consumer group(XREADGROUP)으로 읽는 Reader
+ * 매번 SCAN으로 키 공간 전체를 훑는 대신, 지난 실행 이후 스트림에 추가된 엔트리만 읽는다.
+ *
+ * 1. open: 그룹이 없으면 만들고(MKSTREAM), 지금 스트림의 마지막 id를 이번 실행의 끝으로 잡는다.
+ * 2. 먼저 이 consumer의 pending 엔트리(읽었지만 ack 못 한 것)를 다시 읽는다. (XREADGROUP ... 0)
+ *    그중 ExecutionContext의 lastCommittedId 이하는 이미 커밋된 청크의 엔트리이므로 처리하지 않고 ack만 한다.
+ * 3. 그 다음 새 엔트리를 읽는다. (XREADGROUP ... >) 끝 id를 넘는 엔트리는 다음 실행에서 pending으로 처리된다.
+ * 4. update()에서 마지막으로 읽은 id를 ExecutionContext에 남기고, 그 청크 트랜잭션이 커밋된 뒤에 XACK 한다.
+ *    롤백되면 ack 하지 않으므로 엔트리는 pending으로 남아 재시작 때 다시 읽힌다.
+ *
+ * consumer 이름이 곧 pending 목록의 주인이다. 같은 Step은 항상 같은 consumer 이름으로 돌린다. 단일 스레드 Step 전용.
+ */
+@Slf4j
+public class RedisStreamItemReader<T> implements ItemStreamReader<T> {
+    private static final String LAST_COMMITTED_ID = "lastCommittedId";
+    private static final Comparator<RecordId> RECORD_ID_ORDER =
+            Comparator.comparing(RecordId::getTimestamp).thenComparing(RecordId::getSequence);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String streamKey;
+    private final Consumer consumer;
+    private final Function<Map<String, String>, T> recordMapper;
+    private String name;
+    private int batchSize = 100;
+    private String groupStartOffset = "0";
+
+    private final Deque<MapRecord<String, String, String>> buffer = new ArrayDeque<>();
+    private final List<RecordId> unacknowledged = new ArrayList<>();
+    private RecordId lastCommittedId;
+    private RecordId lastReadId;
+    private RecordId pendingCursor;
+    private RecordId endId;
+    private boolean pendingPhase;
+    private boolean exhausted;
+
+    public RedisStreamItemReader(StringRedisTemplate redisTemplate, String streamKey, String group,
+                                 String consumerName, Function<Map<String, String>, T> recordMapper) {
+        Assert.notNull(redisTemplate, "redisTemplate must not be null");
+        Assert.hasText(streamKey, "streamKey must not be empty");
+        Assert.hasText(group, "group must not be empty");
+        Assert.hasText(consumerName, "consumerName must not be empty");
+        Assert.notNull(recordMapper, "recordMapper must not be null");
+        this.redisTemplate = redisTemplate;
+        this.streamKey = streamKey;
+        this.consumer = Consumer.from(group, consumerName);
+        this.recordMapper = recordMapper;
+        this.name = streamKey;
+    }
+
+    /*
+     * 💀 ExecutionContext 키 접두어 💀
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /*
+     * 💀 그룹을 처음 만들 때의 시작 위치. "0"이면 스트림의 기존 엔트리부터, "$"이면 이후 추가분만 💀
+     */
+    public void setGroupStartOffset(String groupStartOffset) {
+        this.groupStartOffset = groupStartOffset;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        createGroupIfAbsent();
+        buffer.clear();
+        unacknowledged.clear();
+        lastReadId = null;
+        lastCommittedId = executionContext.containsKey(key(LAST_COMMITTED_ID))
+                ? RecordId.of(executionContext.getString(key(LAST_COMMITTED_ID)))
+                : null;
+        pendingCursor = RecordId.of("0-0");
+        pendingPhase = true;
+        exhausted = false;
+
+        List<MapRecord<String, String, String>> last =
+                streams().reverseRange(streamKey, Range.unbounded(), Limit.limit().count(1));
+        endId = last == null || last.isEmpty() ? null : last.get(0).getId();
+        log.info("[{}] Reading {} as {} up to {} (last committed: {})",
+                name, streamKey, consumer, endId, lastCommittedId);
+    }
+
+    @Override
+    public T read() {
+        while (buffer.isEmpty()) {
+            if (exhausted || !fetch()) {
+                return null;
+            }
+        }
+        MapRecord<String, String, String> record = buffer.poll();
+        lastReadId = record.getId();
+        unacknowledged.add(record.getId());
+        return recordMapper.apply(record.getValue());
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (lastReadId != null) {
+            executionContext.putString(key(LAST_COMMITTED_ID), lastReadId.getValue());
+        }
+        if (unacknowledged.isEmpty()) {
+            return;
+        }
+
+        List<RecordId> chunkIds = new ArrayList<>(unacknowledged);
+        unacknowledged.clear();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            acknowledge(chunkIds);
+            return;
+        }
+        // 💀 청크가 커밋된 뒤에만 ack 한다. 롤백되면 다음 커밋 때 함께 ack 하도록 되돌려 놓는다 💀
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    acknowledge(chunkIds);
+                } else {
+                    unacknowledged.addAll(0, chunkIds);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        buffer.clear();
+        unacknowledged.clear();
+    }
+
+    /*
+     * 💀 버퍼를 한 번 채운다. 더 읽을 엔트리가 없으면 false 💀
+     */
+    private boolean fetch() {
+        if (pendingPhase) {
+            List<MapRecord<String, String, String>> pending =
+                    read(ReadOffset.from(pendingCursor.getValue()));
+            if (pending.isEmpty()) {
+                pendingPhase = false;
+                return true;
+            }
+            pendingCursor = pending.get(pending.size() - 1).getId();
+
+            List<RecordId> alreadyCommitted = new ArrayList<>();
+            for (MapRecord<String, String, String> record : pending) {
+                // 💀 커밋은 됐는데 ack 전에 죽은 엔트리, 또는 그 사이 XDEL 된 엔트리는 처리하지 않는다 💀
+                if (isCommitted(record.getId()) || record.getValue() == null || record.getValue().isEmpty()) {
+                    alreadyCommitted.add(record.getId());
+                } else {
+                    buffer.add(record);
+                }
+            }
+            acknowledge(alreadyCommitted);
+            return true;
+        }
+
+        if (endId == null) {
+            exhausted = true;
+            return false;
+        }
+        List<MapRecord<String, String, String>> records = read(ReadOffset.lastConsumed());
+        for (MapRecord<String, String, String> record : records) {
+            if (RECORD_ID_ORDER.compare(record.getId(), endId) > 0) {
+                // 💀 open 이후 들어온 엔트리. 이 consumer의 pending으로 남겨 다음 실행에서 읽는다 💀
+                exhausted = true;
+                break;
+            }
+            buffer.add(record);
+        }
+        if (records.isEmpty()) {
+            exhausted = true;
+        }
+        return !buffer.isEmpty();
+    }
+
+    private List<MapRecord<String, String, String>> read(ReadOffset offset) {
+        List<MapRecord<String, String, String>> records = streams().read(
+                consumer,
+                StreamReadOptions.empty().count(batchSize),
+                StreamOffset.create(streamKey, offset));
+        return records == null ? List.of() : records;
+    }
+
+    private void acknowledge(List<RecordId> ids) {
+        if (!ids.isEmpty()) {
+            streams().acknowledge(streamKey, consumer.getGroup(), ids.toArray(RecordId[]::new));
+        }
+    }
+
+    private boolean isCommitted(RecordId id) {
+        return lastCommittedId != null && RECORD_ID_ORDER.compare(id, lastCommittedId) <= 0;
+    }
+
+    private void createGroupIfAbsent() {
+        byte[] rawKey = streamKey.getBytes(StandardCharsets.UTF_8);
+        try {
+            redisTemplate.execute((RedisCallback<String>) connection -> connection.streamCommands()
+                    .xGroupCreate(rawKey, consumer.getGroup(), ReadOffset.from(groupStartOffset), true));
+        } catch (DataAccessException e) {
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            if (message == null || !message.contains("BUSYGROUP")) {
+                throw e;
+            }
+        }
+    }
+
+    private StreamOperations<String, String, String> streams() {
+        return redisTemplate.opsForStream();
+    }
+
+    private String key(String suffix) {
+        return name + "." + suffix;
+    }
+}
@@ -0,0 +1,68 @@
+package com.system.batch.killbatchsystem.redis;
+
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.api.async.RedisKeyAsyncCommands;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/*
+ * 커서 id를 직접 주고받는 SCAN
+ * RedisTemplate.scan()이 돌려주는 Cursor는 항상 0부터 시작하고 중간 커서에서 다시 시작할 방법이 없다.
+ * 이 헬퍼는 SCAN 한 페이지씩 호출하고 다음 커서를 돌려주므로, 커서를 ExecutionContext에 저장했다가 이어서 스캔할 수 있다.
+ *
+ * SCAN의 보장 범위: 스캔 내내 존재한 키는 최소 한 번 나온다. 해시 테이블이 리사이즈되면 같은 커서라도 페이지 구성이 달라질 수 있어
+ * 같은 키가 다시 나올 수 있다. (Writer는 중복에 안전해야 한다)
+ * Spring Data Redis에 커서 지정 SCAN이 없어 Lettuce 네이티브 API를 쓴다.
+ */
+public class ResumableKeyScanner {
+    public static final String INITIAL_CURSOR = "0";
+
+    private final RedisTemplate<String, ?> redisTemplate;
+
+    public ResumableKeyScanner(RedisTemplate<String, ?> redisTemplate) {
+        Assert.notNull(redisTemplate, "redisTemplate must not be null");
+        this.redisTemplate = redisTemplate;
+    }
+
+    @SuppressWarnings("unchecked")
+    public ScanPage scan(String pattern, String cursor, long count) {
+        RedisSerializer<String> keySerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+        return redisTemplate.execute((RedisCallback<ScanPage>) connection -> {
+            Object nativeConnection = connection.getNativeConnection();
+            Assert.state(nativeConnection instanceof RedisKeyAsyncCommands,
+                    () -> "Resumable SCAN requires a Lettuce connection, but was " + nativeConnection.getClass());
+            RedisKeyAsyncCommands<byte[], byte[]> commands = (RedisKeyAsyncCommands<byte[], byte[]>) nativeConnection;
+
+            KeyScanCursor<byte[]> page;
+            try {
+                page = commands.scan(ScanCursor.of(cursor), ScanArgs.Builder.matches(pattern).limit(count)).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RedisSystemException("SCAN interrupted", e);
+            } catch (ExecutionException e) {
+                throw new RedisSystemException("SCAN " + cursor + " MATCH " + pattern + " failed", e.getCause());
+            }
+
+            List<String> keys = new ArrayList<>(page.getKeys().size());
+            for (byte[] rawKey : page.getKeys()) {
+                keys.add(keySerializer.deserialize(rawKey));
+            }
+            return new ScanPage(keys, page.getCursor(), page.isFinished());
+        });
+    }
+
+    /*
+     * 💀 keys: 이번 페이지의 키, nextCursor: 다음 페이지를 읽을 커서, finished: 마지막 페이지 여부 💀
+     */
+    public record ScanPage(List<String> keys, String nextCursor, boolean finished) {
+    }
+}
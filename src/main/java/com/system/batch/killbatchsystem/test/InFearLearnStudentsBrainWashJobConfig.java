@@ -2,6 +2,10 @@ package com.system.batch.killbatchsystem.test;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.system.batch.killbatchsystem.chunk.BatchItemProcessor;
+import com.system.batch.killbatchsystem.chunk.BatchProcessingStepBuilder;
+import com.system.batch.killbatchsystem.chunk.PrefetchingItemReader;
+import com.system.batch.killbatchsystem.tracing.SampledItemTraceListener;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -22,7 +26,6 @@ import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.core.step.tasklet.Tasklet;
 import org.springframework.batch.item.ExecutionContext;
-import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.database.JdbcPagingItemReader;
 import org.springframework.batch.item.database.Order;
 import org.springframework.batch.item.database.builder.JdbcPagingItemReaderBuilder;
@@ -36,6 +39,9 @@ import org.springframework.core.io.FileSystemResource;
 import org.springframework.transaction.PlatformTransactionManager;
 
 import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -63,19 +69,23 @@ public class InFearLearnStudentsBrainWashJobConfig {
     @Bean
     public Job inFearLearnStudentsBrainWashJob() {
         return new JobBuilder("inFearLearnStudentsBrainWashJob", jobRepository)
-                .start(inFearLearnStudentsBrainWashStep(null))
+                .start(inFearLearnStudentsBrainWashStep(null, null))
                 .next(brainwashStatisticsStep())  // 💀 통계 출력 Step 추가
                 .build();
     }
 
     @Bean
-    public Step inFearLearnStudentsBrainWashStep(CompositeStepExecutionListener compositeStepExecutionListener) {
-        return new StepBuilder("inFearLearnStudentsBrainWashStep", jobRepository)
-                .<InFearLearnStudents, BrainwashedVictim>chunk(10, transactionManager)
-                .reader(inFearLearnStudentsReader())
-                .processor(brainwashProcessor())
+    public Step inFearLearnStudentsBrainWashStep(
+            CompositeStepExecutionListener compositeStepExecutionListener,
+            SampledItemTraceListener<InFearLearnStudents, BrainwashedVictim> brainwashTraceListener
+    ) {
+        return new BatchProcessingStepBuilder<>(new StepBuilder("inFearLearnStudentsBrainWashStep", jobRepository)
+                .<InFearLearnStudents, BrainwashedVictim>chunk(10, transactionManager))
+                .batchProcessor(brainwashProcessor()) // 💀 청크 단위로 세뇌한다
+                .reader(prefetchingInFearLearnStudentsReader()) // 💀 Writer가 일하는 동안 다음 페이지를 미리 읽는다
                 .writer(brainwashedVictimWriter(null))
                 .listener(compositeStepExecutionListener) // 💀 리스너 등록
+                .listener(brainwashTraceListener) // 💀 세뇌 성공/실패는 샘플링해서 남긴다
                 .build();
     }
 
@@ -92,6 +102,26 @@ public class InFearLearnStudentsBrainWashJobConfig {
                 .build();
     }
 
+    @Bean
+    public PrefetchingItemReader<InFearLearnStudents> prefetchingInFearLearnStudentsReader() {
+        PrefetchingItemReader<InFearLearnStudents> reader =
+                new PrefetchingItemReader<>(inFearLearnStudentsReader(), 30); // 💀 3페이지 앞까지
+        reader.setName("inFearLearnStudentsReader");
+        reader.setSnapshotInterval(10); // 💀 청크 크기. 청크 경계에서만 delegate 상태를 찍는다
+        return reader;
+    }
+
+    @Bean
+    public SampledItemTraceListener<InFearLearnStudents, BrainwashedVictim> brainwashTraceListener(
+            @Value("${batch.trace.sample-rate:0.0}") double sampleRate,
+            @Value("${batch.trace.max-per-second:10}") int maxPerSecond) {
+        SampledItemTraceListener<InFearLearnStudents, BrainwashedVictim> listener =
+                new SampledItemTraceListener<>("brainwash", sampleRate, maxPerSecond);
+        listener.setInputFormatter(victim -> victim.getCurrentLecture() + " - " + victim.getInstructor());
+        listener.setOutputFormatter(BrainwashedVictim::getBrainwashMessage);
+        return listener;
+    }
+
     @Bean
     public BrainwashProcessor brainwashProcessor() {
         return new BrainwashProcessor();
@@ -114,21 +144,27 @@ public class InFearLearnStudentsBrainWashJobConfig {
                 .build();
     }
 
-    @Slf4j
-    public static class BrainwashProcessor implements ItemProcessor<InFearLearnStudents, BrainwashedVictim> {
+    public static class BrainwashProcessor implements BatchItemProcessor<InFearLearnStudents, BrainwashedVictim> {
 
         @Override
-        public BrainwashedVictim process(InFearLearnStudents victim) {
-            String brainwashMessage = generateBrainwashMessage(victim);
+        public List<BrainwashedVictim> process(List<? extends InFearLearnStudents> victims) {
+            // 💀 세뇌 메시지는 설득 기법마다 한 번만 만든다
+            Map<String, String> messagesByMethod = new HashMap<>();
+            List<BrainwashedVictim> results = new ArrayList<>(victims.size());
+            for (InFearLearnStudents victim : victims) {
+                String brainwashMessage = messagesByMethod.computeIfAbsent(
+                        victim.getPersuasionMethod(), this::generateBrainwashMessage);
+                results.add(brainwash(victim, brainwashMessage));
+            }
+            return results;
+        }
 
+        private BrainwashedVictim brainwash(InFearLearnStudents victim, String brainwashMessage) {
             // 💀 세뇌 실패자는 필터링
             if ("배치 따위 필요없어".equals(brainwashMessage)) {
-                log.info("세뇌 실패: {} - {}", victim.getCurrentLecture(), victim.getInstructor());
                 return null;
             }
 
-            log.info("세뇌 성공: {} → {}", victim.getCurrentLecture(), brainwashMessage);
-
             return BrainwashedVictim.builder()
                     .victimId(victim.getStudentId())
                     .originalLecture(victim.getCurrentLecture())
@@ -141,8 +177,8 @@ public class InFearLearnStudentsBrainWashJobConfig {
                     .build();
         }
 
-        private String generateBrainwashMessage(InFearLearnStudents victim) {
-            return switch(victim.getPersuasionMethod()) {
+        private String generateBrainwashMessage(String persuasionMethod) {
+            return switch(persuasionMethod) {
                 case "MURDER_YOUR_IGNORANCE" -> "무지를 살해하라... 배치의 세계가 기다린다 💀";
                 case "SLAUGHTER_YOUR_LIMITS" -> "한계를 도살하라... 대용량 데이터를 정복하라 💀";
                 case "EXECUTE_YOUR_POTENTIAL" -> "잠재력을 처형하라... 대용량 처리의 세계로 💀";
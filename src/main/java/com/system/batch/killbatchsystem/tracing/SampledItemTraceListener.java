@@ -0,0 +1,101 @@
+package com.system.batch.killbatchsystem.tracing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.util.Assert;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/*
+ * 프로세서 안에서 매 아이템마다 log.info(item)을 찍는 대신 쓰는 샘플링 추적 리스너
+ * - sampleRate(0.0 ~ 1.0) 확률로 뽑힌 아이템만 "입력 → 결과"를 남긴다. 0이면 아무것도 하지 않는다.
+ * - 샘플에 뽑혀도 초당 maxPerSecond 건을 넘으면 버린다. (여러 스레드가 함께 써도 로그가 폭주하지 않는다)
+ * - 아이템 → 문자열 변환(formatter)은 실제로 로그를 남길 때만 호출된다.
+ * - 처리 중 예외는 샘플링과 무관하게 남기되, 같은 초당 상한을 따른다.
+ *
+ * 로그 레벨이 INFO 미만이면 난수 생성조차 하지 않으므로, 끄면 비용이 0에 가깝다.
+ */
+@Slf4j
+public class SampledItemTraceListener<I, O> implements ItemProcessListener<I, O> {
+    private final String name;
+    private final double sampleRate;
+    private final int maxPerSecond;
+    private Function<? super I, ?> inputFormatter = Function.identity();
+    private Function<? super O, ?> outputFormatter = Function.identity();
+
+    private final AtomicLong currentSecond = new AtomicLong();
+    private final AtomicInteger emittedInSecond = new AtomicInteger();
+
+    public SampledItemTraceListener(String name, double sampleRate, int maxPerSecond) {
+        Assert.isTrue(sampleRate >= 0.0 && sampleRate <= 1.0, "sampleRate must be between 0.0 and 1.0");
+        Assert.isTrue(maxPerSecond >= 0, "maxPerSecond must not be negative");
+        this.name = name;
+        this.sampleRate = sampleRate;
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    /*
+     * 💀 toString()이 비싼 엔티티(연관 컬렉션 등)는 ID 같은 요약만 찍도록 바꿔 끼운다 💀
+     */
+    public void setInputFormatter(Function<? super I, ?> inputFormatter) {
+        this.inputFormatter = inputFormatter;
+    }
+
+    public void setOutputFormatter(Function<? super O, ?> outputFormatter) {
+        this.outputFormatter = outputFormatter;
+    }
+
+    @Override
+    public void afterProcess(I item, O result) {
+        if (!sampled() || !acquire()) {
+            return;
+        }
+        if (result == null) {
+            log.info("[{}] [{}] filtered: {}", name, Thread.currentThread().getName(),
+                    lazy(inputFormatter, item));
+        } else {
+            log.info("[{}] [{}] processed: {} → {}", name, Thread.currentThread().getName(),
+                    lazy(inputFormatter, item), lazy(outputFormatter, result));
+        }
+    }
+
+    @Override
+    public void onProcessError(I item, Exception e) {
+        if (!log.isWarnEnabled() || !acquire()) {
+            return;
+        }
+        log.warn("[{}] [{}] failed: {} ({})", name, Thread.currentThread().getName(),
+                lazy(inputFormatter, item), e.toString());
+    }
+
+    private boolean sampled() {
+        if (sampleRate <= 0.0 || !log.isInfoEnabled()) {
+            return false;
+        }
+        return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    /*
+     * 💀 초 단위 고정 창 카운터. 창이 바뀌면 처음 도착한 스레드가 카운터를 초기화한다 💀
+     */
+    private boolean acquire() {
+        long second = System.currentTimeMillis() / 1000;
+        long current = currentSecond.get();
+        if (second != current && currentSecond.compareAndSet(current, second)) {
+            emittedInSecond.set(0);
+        }
+        return emittedInSecond.incrementAndGet() <= maxPerSecond;
+    }
+
+    private static <T> Object lazy(Function<? super T, ?> formatter, T item) {
+        return new Object() {
+            @Override
+            public String toString() {
+                return String.valueOf(formatter.apply(item));
+            }
+        };
+    }
+}
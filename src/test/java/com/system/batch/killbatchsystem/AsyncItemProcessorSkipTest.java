@@ -0,0 +1,127 @@
+package com.system.batch.killbatchsystem;
+
+import com.system.batch.killbatchsystem.AsyncItemProcessor.BoundedAsyncItemProcessor;
+import com.system.batch.killbatchsystem.AsyncItemProcessor.OrderedAsyncItemWriter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.support.ListItemReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * 💀 AsyncItemProcessorConfig와 같은 조합(BoundedAsyncItemProcessor + OrderedAsyncItemWriter + skip(TimeoutException))을
+ * 실제 청크 스텝으로 돌려, 제한 시간을 넘긴 아이템만 건너뛰고 나머지는 모두 쓰는지 확인한다 💀
+ * 업그레이드 시간만 짧게 줄였다.
+ */
+@SpringJUnitConfig(AsyncItemProcessorSkipTest.TestConfig.class)
+class AsyncItemProcessorSkipTest {
+    private static final List<String> WRITTEN = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    private Job upgradeJob;
+
+    @Test
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    @DisplayName("💀 제한 시간을 넘긴 유닛만 skip 되고 나머지 유닛은 scan 중에 다시 처리돼 모두 쓰인다")
+    void shouldSkipOnlyTimedOutItem() throws Exception {
+        // When
+        JobExecution jobExecution = jobLauncher.run(upgradeJob, new JobParametersBuilder()
+                .addLong("run.id", System.nanoTime())
+                .toJobParameters());
+
+        // Then
+        assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        StepExecution stepExecution = jobExecution.getStepExecutions().iterator().next();
+        assertThat(stepExecution.getWriteSkipCount()).isEqualTo(1);
+        assertThat(WRITTEN).containsExactlyInAnyOrder("T850-1", "T850-2", "T850-4", "T850-5");
+    }
+
+    @Configuration
+    @EnableBatchProcessing
+    static class TestConfig {
+        @Bean
+        public DataSource dataSource() {
+            return new EmbeddedDatabaseBuilder()
+                    .setType(EmbeddedDatabaseType.H2)
+                    .addScript("/org/springframework/batch/core/schema-h2.sql")
+                    .generateUniqueName(true)
+                    .build();
+        }
+
+        @Bean
+        public PlatformTransactionManager transactionManager(DataSource dataSource) {
+            return new DataSourceTransactionManager(dataSource);
+        }
+
+        @Bean
+        public BoundedAsyncItemProcessor<Integer, String> upgradeProcessor() {
+            BoundedAsyncItemProcessor<Integer, String> processor = new BoundedAsyncItemProcessor<>();
+            // 💀 3번 유닛만 제한 시간을 넘긴다 💀
+            processor.setDelegate(unit -> {
+                if (unit == 3) {
+                    TimeUnit.SECONDS.sleep(30);
+                }
+                return "T850-" + unit;
+            });
+            processor.setTaskExecutor(new SimpleAsyncTaskExecutor("Upgrade-"));
+            processor.setMaxInFlight(5);
+            processor.setItemTimeout(Duration.ofMillis(300));
+            return processor;
+        }
+
+        @Bean
+        public OrderedAsyncItemWriter<String> upgradeWriter() {
+            OrderedAsyncItemWriter<String> writer = new OrderedAsyncItemWriter<>();
+            writer.setDelegate(items -> WRITTEN.addAll(items.getItems()));
+            return writer;
+        }
+
+        @Bean
+        public Job upgradeJob(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                              BoundedAsyncItemProcessor<Integer, String> upgradeProcessor,
+                              OrderedAsyncItemWriter<String> upgradeWriter) {
+            return new JobBuilder("upgradeJob", jobRepository)
+                    .start(new StepBuilder("upgradeStep", jobRepository)
+                            .<Integer, Future<String>>chunk(5, transactionManager)
+                            .reader(new ListItemReader<>(List.of(1, 2, 3, 4, 5)))
+                            .processor(upgradeProcessor)
+                            .writer(upgradeWriter)
+                            .faultTolerant()
+                            .skip(TimeoutException.class)
+                            .skipLimit(3)
+                            .build())
+                    .build();
+        }
+    }
+}
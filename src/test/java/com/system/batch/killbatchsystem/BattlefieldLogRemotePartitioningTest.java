@@ -0,0 +1,161 @@
+package com.system.batch.killbatchsystem;
+
+import com.system.batch.killbatchsystem.partitional.BattlefieldLogRemotePartitioningConfig;
+import com.system.batch.killbatchsystem.partitional.DailyTimeRangePartitioner;
+import com.system.batch.killbatchsystem.rabbitmq_integration.RabbitMQProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.integration.partition.StepExecutionRequest;
+import org.springframework.batch.integration.partition.StepExecutionRequestHandler;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/*
+ * 💀 RabbitMQ 대신 DirectChannel 하나로 매니저와 워커를 잇는다 💀
+ * AMQP 어댑터만 빼고 BattlefieldLogRemotePartitioningConfig가 만드는 managerStep과 StepExecutionRequestHandler를 그대로 쓴다.
+ * 워커는 같은 JobRepository(H2)를 공유하고, 매니저는 JobRepository를 폴링해 파티션 완료를 확인한다.
+ */
+@SpringJUnitConfig(BattlefieldLogRemotePartitioningTest.TestConfig.class)
+class BattlefieldLogRemotePartitioningTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final Set<String> WORKED_PARTITIONS = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    private JobExplorer jobExplorer;
+
+    @Autowired
+    private Job remotePartitionedJob;
+
+    @Test
+    @DisplayName("💀 매니저가 보낸 파티션 요청을 워커가 받아 모든 파티션이 완료된다")
+    void shouldCompleteAllPartitionsOverDirectChannel() throws Exception {
+        // When
+        JobExecution jobExecution = jobLauncher.run(remotePartitionedJob, new JobParametersBuilder()
+                .addLong("run.id", System.nanoTime())
+                .toJobParameters());
+
+        // Then
+        assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        // 💀 워커가 남긴 상태는 매니저가 들고 있는 StepExecution이 아니라 JobRepository에 있다 💀
+        List<StepExecution> workerExecutions = jobExplorer.getJobExecution(jobExecution.getId()).getStepExecutions().stream()
+                .filter(stepExecution -> stepExecution.getStepName().startsWith("workerStep:"))
+                .toList();
+        assertThat(workerExecutions).hasSize(4)
+                .allMatch(stepExecution -> stepExecution.getStatus() == BatchStatus.COMPLETED);
+        assertThat(WORKED_PARTITIONS).containsExactlyInAnyOrder(
+                START.toString(), START.plusHours(6).toString(), START.plusHours(12).toString(), START.plusHours(18).toString());
+    }
+
+    @Configuration
+    @EnableBatchProcessing
+    static class TestConfig {
+        @Bean
+        public DataSource dataSource() {
+            return new EmbeddedDatabaseBuilder()
+                    .setType(EmbeddedDatabaseType.H2)
+                    .addScript("/org/springframework/batch/core/schema-h2.sql")
+                    .generateUniqueName(true)
+                    .build();
+        }
+
+        @Bean
+        public PlatformTransactionManager transactionManager(DataSource dataSource) {
+            return new DataSourceTransactionManager(dataSource);
+        }
+
+        @Bean
+        public DirectChannel partitionRequests() {
+            return new DirectChannel();
+        }
+
+        @Bean
+        public BattlefieldLogRemotePartitioningConfig remotePartitioningConfig(
+                JobRepository jobRepository, JobExplorer jobExplorer, BeanFactory beanFactory) {
+            return new BattlefieldLogRemotePartitioningConfig(jobRepository, jobExplorer, beanFactory, new RabbitMQProperties());
+        }
+
+        // 💀 워커 쪽: AMQP 인바운드 어댑터 대신 채널을 StepExecutionRequestHandler에 직접 연결한다 💀
+        @Bean
+        public StepExecutionRequestHandler stepExecutionRequestHandler(
+                BattlefieldLogRemotePartitioningConfig remotePartitioningConfig, DirectChannel partitionRequests) {
+            StepExecutionRequestHandler handler = remotePartitioningConfig.stepExecutionRequestHandler();
+            partitionRequests.subscribe(message -> handler.handle((StepExecutionRequest) message.getPayload()));
+            return handler;
+        }
+
+        @Bean
+        public Step workerStep(JobRepository jobRepository, PlatformTransactionManager transactionManager) {
+            return new StepBuilder("workerStep", jobRepository)
+                    .tasklet((contribution, chunkContext) -> {
+                        ExecutionContext context = chunkContext.getStepContext().getStepExecution().getExecutionContext();
+                        WORKED_PARTITIONS.add(context.getString("startDateTime"));
+                        return RepeatStatus.FINISHED;
+                    }, transactionManager)
+                    .build();
+        }
+
+        // 💀 매니저 쪽: Redis 샘플링 대신 6시간씩 4개로 자르는 파티셔너 💀
+        @Bean
+        public Step managerStep(BattlefieldLogRemotePartitioningConfig remotePartitioningConfig,
+                                DirectChannel partitionRequests,
+                                StepExecutionRequestHandler stepExecutionRequestHandler) {
+            DailyTimeRangePartitioner partitioner = mock(DailyTimeRangePartitioner.class);
+            when(partitioner.partition(anyInt())).thenAnswer(invocation -> {
+                Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+                for (int i = 0; i < 4; i++) {
+                    ExecutionContext context = new ExecutionContext();
+                    context.putString("startDateTime", START.plusHours(6L * i).toString());
+                    context.putString("endDateTime", START.plusHours(6L * (i + 1)).toString());
+                    partitions.put(String.valueOf(i), context);
+                }
+                return partitions;
+            });
+            return remotePartitioningConfig.managerStep(partitioner, partitionRequests);
+        }
+
+        @Bean
+        public Job remotePartitionedJob(JobRepository jobRepository, Step managerStep) {
+            return new JobBuilder("remotePartitionedJob", jobRepository)
+                    .start(managerStep)
+                    .build();
+        }
+    }
+}
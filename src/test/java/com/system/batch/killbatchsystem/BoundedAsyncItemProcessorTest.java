@@ -0,0 +1,117 @@
+package com.system.batch.killbatchsystem;
+
+import com.system.batch.killbatchsystem.AsyncItemProcessor.BoundedAsyncItemProcessor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedAsyncItemProcessorTest {
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("💀 처리 중인 아이템이 maxInFlight개면 다음 process()는 자리가 날 때까지 기다린다")
+    void shouldBlockWhenWindowIsFull() throws Exception {
+        // Given - 게이트가 열릴 때까지 끝나지 않는 delegate, 동시 처리 2개
+        CountDownLatch gate = new CountDownLatch(1);
+        BoundedAsyncItemProcessor<String, String> processor = processor(item -> {
+            gate.await();
+            return item.toUpperCase();
+        }, 2, Duration.ofSeconds(5));
+        Future<String> first = processor.process("a");
+        Future<String> second = processor.process("b");
+
+        // When - 세 번째 아이템은 다른 스레드에서 제출한다
+        CompletableFuture<Future<String>> third = CompletableFuture.supplyAsync(() -> {
+            try {
+                return processor.process("c");
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Then - 자리가 없으니 제출이 막혀 있다가, 앞 아이템이 끝나면 풀린다
+        TimeUnit.MILLISECONDS.sleep(200);
+        assertThat(third).isNotDone();
+
+        gate.countDown();
+        assertThat(first.get()).isEqualTo("A");
+        assertThat(second.get()).isEqualTo("B");
+        assertThat(third.get(5, TimeUnit.SECONDS).get()).isEqualTo("C");
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("💀 제한 시간이 지나면 TimeoutException을 던지고 작업을 인터럽트해 자리를 돌려준다")
+    void shouldCancelItemAfterTimeout() throws Exception {
+        // Given - 인터럽트될 때까지 끝나지 않는 delegate, 동시 처리 1개
+        CountDownLatch interrupted = new CountDownLatch(1);
+        BoundedAsyncItemProcessor<String, String> processor = processor(item -> {
+            if (item.equals("stuck")) {
+                try {
+                    TimeUnit.SECONDS.sleep(30);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw e;
+                }
+            }
+            return item;
+        }, 1, Duration.ofMillis(100));
+
+        // When
+        Future<String> stuck = processor.process("stuck");
+
+        // Then
+        assertThatThrownBy(() -> stuck.get(Long.MAX_VALUE, TimeUnit.NANOSECONDS))
+                .isInstanceOf(TimeoutException.class)
+                .hasMessageContaining("stuck");
+        assertThat(stuck.isCancelled()).isTrue();
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // 💀 자리가 하나뿐이라, 돌려받지 못했다면 여기서 막힌다 💀
+        assertThat(processor.process("next").get()).isEqualTo("next");
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("💀 호출자가 준 timeout이 남은 제한 시간보다 짧으면 작업을 취소하지 않는다")
+    void shouldNotCancelOnCallerTimeout() throws Exception {
+        // Given
+        CountDownLatch gate = new CountDownLatch(1);
+        BoundedAsyncItemProcessor<String, String> processor = processor(item -> {
+            gate.await();
+            return item;
+        }, 1, Duration.ofSeconds(5));
+        Future<String> future = processor.process("a");
+
+        // When
+        assertThatThrownBy(() -> future.get(50, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+
+        // Then
+        assertThat(future.isCancelled()).isFalse();
+        gate.countDown();
+        assertThat(future.get()).isEqualTo("a");
+    }
+
+    private BoundedAsyncItemProcessor<String, String> processor(ItemProcessor<String, String> delegate,
+                                                                int maxInFlight, Duration itemTimeout) {
+        BoundedAsyncItemProcessor<String, String> processor = new BoundedAsyncItemProcessor<>();
+        processor.setDelegate(delegate);
+        processor.setTaskExecutor(new SimpleAsyncTaskExecutor("async-test-"));
+        processor.setMaxInFlight(maxInFlight);
+        processor.setItemTimeout(itemTimeout);
+        processor.afterPropertiesSet();
+        return processor;
+    }
+}
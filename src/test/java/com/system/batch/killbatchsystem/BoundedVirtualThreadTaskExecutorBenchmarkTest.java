@@ -0,0 +1,96 @@
+package com.system.batch.killbatchsystem;
+
+import com.system.batch.killbatchsystem.multi_thread_step.BoundedVirtualThreadTaskExecutor;
+import com.system.batch.killbatchsystem.multi_thread_step.T800ProtocolConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * 💀 I/O를 기다리는 작업(sleep)을 기존 스레드 풀과 T-800의 가상 스레드 모드 Executor에 같은 동시 실행 수로 돌려 비교한다 💀
+ * 가상 스레드 모드는 T800ProtocolConfig.taskExecutor(true, ...)가 고른 것을 그대로 쓴다.
+ * Java 21+ 에서는 BoundedVirtualThreadTaskExecutor, 17에서는 대신 쓰는 플랫폼 스레드 풀이 측정된다.
+ * ./gradlew benchmark 로만 돈다. (-PbenchmarkJava=21 이면 가상 스레드)
+ */
+@Tag("benchmark")
+class BoundedVirtualThreadTaskExecutorBenchmarkTest {
+    private static final int TASKS = 2_000;
+    private static final int CONCURRENCY = 64;
+    private static final long IO_WAIT_MILLIS = 5;
+
+    @Test
+    @DisplayName("가상 스레드 모드 Executor는 동시 실행 상한을 지키면서 스레드 풀과 같은 작업을 처리한다")
+    void compareWithPlatformThreadPool() throws Exception {
+        ThreadPoolTaskExecutor platform = new ThreadPoolTaskExecutor();
+        platform.setCorePoolSize(CONCURRENCY);
+        platform.setMaxPoolSize(CONCURRENCY);
+        platform.setThreadNamePrefix("platform-");
+        platform.initialize();
+        // 💀 taskExecutor()는 생성자로 받은 의존성을 쓰지 않는다 💀
+        TaskExecutor virtual = new T800ProtocolConfig(null, null, null, null).taskExecutor(true, CONCURRENCY);
+        if (virtual instanceof ThreadPoolTaskExecutor fallback) {
+            fallback.initialize();
+        }
+
+        try {
+            // 💀 워밍업 💀
+            run(platform);
+            run(virtual);
+
+            Result platformResult = run(platform);
+            Result virtualResult = run(virtual);
+
+            System.out.printf("platform pool : %d ms (peak %d)%n", platformResult.elapsedMillis(), platformResult.peak());
+            System.out.printf("virtual mode  : %d ms (peak %d, %s on Java %d)%n", virtualResult.elapsedMillis(),
+                    virtualResult.peak(), virtual.getClass().getSimpleName(), Runtime.version().feature());
+
+            assertThat(virtualResult.peak()).isLessThanOrEqualTo(CONCURRENCY);
+            assertThat(virtualResult.completed()).isEqualTo(TASKS);
+            assertThat(platformResult.completed()).isEqualTo(TASKS);
+            if (virtual instanceof BoundedVirtualThreadTaskExecutor bounded) {
+                assertThat(bounded.getActiveCount()).isZero();
+            }
+        } finally {
+            platform.shutdown();
+            if (virtual instanceof ThreadPoolTaskExecutor fallback) {
+                fallback.shutdown();
+            }
+        }
+    }
+
+    private Result run(TaskExecutor executor) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(TASKS);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < TASKS; i++) {
+            executor.execute(() -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(IO_WAIT_MILLIS);
+                    completed.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+        assertThat(done.await(1, TimeUnit.MINUTES)).isTrue();
+        return new Result(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), peak.get(), completed.get());
+    }
+
+    private record Result(long elapsedMillis, int peak, int completed) {
+    }
+}
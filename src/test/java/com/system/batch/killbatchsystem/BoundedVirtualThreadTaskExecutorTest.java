@@ -0,0 +1,94 @@
+package com.system.batch.killbatchsystem;
+
+import com.system.batch.killbatchsystem.multi_thread_step.BoundedVirtualThreadTaskExecutor;
+import com.system.batch.killbatchsystem.multi_thread_step.T800ProtocolConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/*
+ * 💀 T-800 가상 스레드 모드가 JVM에 맞는 Executor를 고르고, 어느 쪽이든 동시 실행 상한을 지키는지 확인한다 💀
+ * 처리 시간 비교는 BoundedVirtualThreadTaskExecutorBenchmarkTest에 있다.
+ */
+class BoundedVirtualThreadTaskExecutorTest {
+    private static final int CONCURRENCY = 4;
+    private static final int TASKS = 40;
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("💀 Java 21 미만에서는 가상 스레드 모드를 켜도 같은 크기의 플랫폼 스레드 풀로 돈다")
+    void shouldFallBackToPlatformPool() throws Exception {
+        assumeFalse(BoundedVirtualThreadTaskExecutor.isSupported(), "Fallback applies below Java 21");
+
+        // When
+        TaskExecutor executor = t800TaskExecutor();
+
+        // Then
+        assertThat(executor).isInstanceOf(ThreadPoolTaskExecutor.class);
+        ThreadPoolTaskExecutor pool = (ThreadPoolTaskExecutor) executor;
+        pool.initialize();
+        try {
+            assertThat(pool.getMaxPoolSize()).isEqualTo(CONCURRENCY);
+            assertThat(runAll(pool)).isLessThanOrEqualTo(CONCURRENCY);
+        } finally {
+            pool.shutdown();
+        }
+        assertThatThrownBy(() -> new BoundedVirtualThreadTaskExecutor("virtual-", CONCURRENCY))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("💀 Java 21+ 에서는 가상 스레드로 돌고 Semaphore 상한을 넘지 않는다")
+    void shouldRunOnVirtualThreadsWithinLimit() throws Exception {
+        assumeTrue(BoundedVirtualThreadTaskExecutor.isSupported(), "Virtual threads require Java 21+");
+
+        // When
+        TaskExecutor executor = t800TaskExecutor();
+
+        // Then
+        assertThat(executor).isInstanceOf(BoundedVirtualThreadTaskExecutor.class);
+        assertThat(runAll(executor)).isLessThanOrEqualTo(CONCURRENCY);
+        assertThat(((BoundedVirtualThreadTaskExecutor) executor).getActiveCount()).isZero();
+    }
+
+    // 💀 taskExecutor()는 생성자로 받은 의존성을 쓰지 않는다 💀
+    private TaskExecutor t800TaskExecutor() {
+        return new T800ProtocolConfig(null, null, null, null).taskExecutor(true, CONCURRENCY);
+    }
+
+    /*
+     * 💀 짧게 기다리는 작업을 모두 돌리고, 동시에 돈 작업 수의 최댓값을 돌려준다 💀
+     */
+    private int runAll(TaskExecutor executor) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(TASKS);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        for (int i = 0; i < TASKS; i++) {
+            executor.execute(() -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        return peak.get();
+    }
+}
@@ -0,0 +1,166 @@
+package com.system.batch.killbatchsystem;
+
+import com.system.batch.killbatchsystem.multi_thread_step.CheckpointingFlatFileItemWriter;
+import com.system.batch.killbatchsystem.multi_thread_step.KeyRangeCheckpointTracker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CheckpointingFlatFileItemWriterTest {
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(new ResourcelessTransactionManager());
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("💀 롤백된 청크는 파일에 닿지 않고, 재시작하면 체크포인트 길이로 잘라낸 뒤 이어 쓴다")
+    void shouldDropRolledBackChunkAndTruncateOnRestart() throws Exception {
+        // Given
+        Path output = tempDir.resolve("targets.csv");
+        ExecutionContext executionContext = new ExecutionContext();
+
+        // When - 첫 실행: [1, 2]는 커밋, [3, 4]는 롤백
+        KeyRangeCheckpointTracker firstTracker = new KeyRangeCheckpointTracker();
+        CheckpointingFlatFileItemWriter<Long> firstRun = writer(output, firstTracker);
+        firstRun.open(executionContext);
+        firstTracker.pageClaimed(2L);
+        firstTracker.pageClaimed(4L);
+        firstTracker.pageLoaded(2L, List.of(1L, 2L));
+        firstTracker.pageLoaded(4L, List.of(3L, 4L));
+
+        writeInTransaction(firstRun, 1L, 2L);
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            write(firstRun, 3L, 4L);
+            throw new IllegalStateException("chunk failed");
+        })).isInstanceOf(IllegalStateException.class);
+
+        firstRun.close();
+        firstRun.update(executionContext);
+
+        // Then
+        assertThat(Files.readAllLines(output)).containsExactly("id", "target-1", "target-2");
+        assertThat(executionContext.getLong("checkpoint.lastKey")).isEqualTo(2L);
+        assertThat(executionContext.getLong("checkpoint.outputOffset")).isEqualTo(Files.size(output));
+
+        // 💀 체크포인트 뒤에 붙었지만 update() 전에 죽은 꼬리 💀
+        Files.writeString(output, "target-3\n", StandardOpenOption.APPEND);
+
+        // When - 재시작: 2 다음부터 다시 읽어 [3, 4]를 쓴다
+        KeyRangeCheckpointTracker secondTracker = new KeyRangeCheckpointTracker();
+        CheckpointingFlatFileItemWriter<Long> secondRun = writer(output, secondTracker);
+        secondRun.open(executionContext);
+        assertThat(secondTracker.getResumeAfter()).isEqualTo(2L);
+        secondTracker.pageClaimed(4L);
+        secondTracker.pageLoaded(4L, List.of(3L, 4L));
+        writeInTransaction(secondRun, 3L, 4L);
+        secondRun.close();
+        secondRun.update(executionContext);
+
+        // Then - 헤더는 한 번, 꼬리는 잘려 중복 없이 이어진다
+        assertThat(Files.readAllLines(output)).containsExactly("id", "target-1", "target-2", "target-3", "target-4");
+        assertThat(executionContext.getLong("checkpoint.lastKey")).isEqualTo(4L);
+        assertThat(executionContext.getLong("checkpoint.outputOffset")).isEqualTo(Files.size(output));
+    }
+
+    @Test
+    @DisplayName("💀 청크는 트랜잭션이 커밋된 뒤에야 flush 큐에 들어간다")
+    void shouldEnqueueOnlyAfterCommit() throws Exception {
+        // Given
+        Path output = tempDir.resolve("targets.csv");
+        KeyRangeCheckpointTracker tracker = new KeyRangeCheckpointTracker();
+        CheckpointingFlatFileItemWriter<Long> writer = writer(output, tracker);
+        writer.open(new ExecutionContext());
+        tracker.pageClaimed(1L);
+        tracker.pageLoaded(1L, List.of(1L));
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> {
+            write(writer, 1L);
+            try {
+                // 💀 flusher가 돌 시간을 줘도 커밋 전이라 파일에는 헤더뿐이다 💀
+                TimeUnit.MILLISECONDS.sleep(50);
+                assertThat(Files.readAllLines(output)).containsExactly("id");
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        writer.close();
+
+        // Then
+        assertThat(Files.readAllLines(output)).containsExactly("id", "target-1");
+    }
+
+    @Test
+    @DisplayName("💀 flusher 스레드도 Step 컨텍스트 안에서 돌아 step scope tracker를 쓸 수 있다")
+    void shouldFlushWithinStepContext() throws Exception {
+        // Given - append가 불릴 때의 StepExecution을 기록하는 tracker
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        List<StepExecution> appendedIn = new CopyOnWriteArrayList<>();
+        KeyRangeCheckpointTracker tracker = new KeyRangeCheckpointTracker() {
+            @Override
+            public synchronized void append(Collection<Long> keys, OutputAppender appender) throws IOException {
+                if (StepSynchronizationManager.getContext() != null) {
+                    appendedIn.add(StepSynchronizationManager.getContext().getStepExecution());
+                }
+                super.append(keys, appender);
+            }
+        };
+        Path output = tempDir.resolve("targets.csv");
+        CheckpointingFlatFileItemWriter<Long> writer = writer(output, tracker);
+
+        // When
+        StepSynchronizationManager.register(stepExecution);
+        try {
+            writer.open(new ExecutionContext());
+            tracker.pageClaimed(1L);
+            tracker.pageLoaded(1L, List.of(1L));
+            writeInTransaction(writer, 1L);
+            writer.close();
+        } finally {
+            StepSynchronizationManager.close();
+        }
+
+        // Then - 헤더(열던 스레드)와 청크(flusher 스레드) 모두 같은 StepExecution 안에서 쓰였다
+        assertThat(appendedIn).hasSize(2).containsOnly(stepExecution);
+        assertThat(Files.readAllLines(output)).containsExactly("id", "target-1");
+    }
+
+    private CheckpointingFlatFileItemWriter<Long> writer(Path output, KeyRangeCheckpointTracker tracker) {
+        CheckpointingFlatFileItemWriter<Long> writer = new CheckpointingFlatFileItemWriter<>(
+                output, id -> "target-" + id, id -> id, tracker);
+        writer.setHeaderCallback(header -> header.write("id"));
+        writer.setLineSeparator("\n");
+        return writer;
+    }
+
+    private void writeInTransaction(CheckpointingFlatFileItemWriter<Long> writer, Long... ids) {
+        transactionTemplate.executeWithoutResult(status -> write(writer, ids));
+    }
+
+    private void write(CheckpointingFlatFileItemWriter<Long> writer, Long... ids) {
+        try {
+            writer.write(Chunk.of(ids));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
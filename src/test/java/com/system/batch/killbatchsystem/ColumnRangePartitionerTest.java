@@ -0,0 +1,116 @@
+package com.system.batch.killbatchsystem;
+
+import com.system.batch.killbatchsystem.partitional.ColumnRangePartitioner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColumnRangePartitionerTest {
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE victims (id BIGINT PRIMARY KEY, status VARCHAR(20))");
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    @DisplayName("💀 기본 모드는 MIN/MAX 사이를 gridSize개의 같은 폭 구간으로 자른다")
+    void shouldSplitIntoEqualWidthRanges() {
+        // Given
+        insert(LongStream.rangeClosed(1, 100));
+
+        // When
+        Map<String, ExecutionContext> partitions = partitioner(false).partition(4);
+
+        // Then
+        assertThat(ranges(partitions)).containsExactly(
+                List.of(1L, 25L), List.of(26L, 50L), List.of(51L, 75L), List.of(76L, 100L));
+        assertThat(partitions.get("partition3").getInt(ColumnRangePartitioner.PARTITION_NUMBER_KEY)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("💀 balanced 모드는 NTILE로 행 수가 같은 구간을 만들고, 구간 사이 빈틈을 다음 구간 직전까지 메운다")
+    void shouldSplitIntoBalancedRanges() {
+        // Given - 1~10과 1001~1010 사이에 큰 구멍
+        insert(LongStream.concat(LongStream.rangeClosed(1, 10), LongStream.rangeClosed(1001, 1010)));
+
+        // When
+        Map<String, ExecutionContext> partitions = partitioner(true).partition(4);
+
+        // Then - 같은 폭이었다면 1~253 구간에 10건, 나머지 두 구간은 비었을 것이다
+        assertThat(ranges(partitions)).containsExactly(
+                List.of(1L, 5L), List.of(6L, 1000L), List.of(1001L, 1005L), List.of(1006L, 1010L));
+    }
+
+    @Test
+    @DisplayName("💀 gridSize가 id 폭보다 크면 id 하나짜리 구간까지만 만든다")
+    void shouldNotCreateMorePartitionsThanIds() {
+        // Given
+        insert(LongStream.rangeClosed(1, 3));
+
+        // When
+        Map<String, ExecutionContext> equalWidth = partitioner(false).partition(8);
+        Map<String, ExecutionContext> balanced = partitioner(true).partition(8);
+
+        // Then
+        assertThat(ranges(equalWidth)).containsExactly(List.of(1L, 1L), List.of(2L, 2L), List.of(3L, 3L));
+        assertThat(ranges(balanced)).containsExactly(List.of(1L, 1L), List.of(2L, 2L), List.of(3L, 3L));
+    }
+
+    @Test
+    @DisplayName("💀 읽을 행이 없으면 아무것도 걸리지 않는 {1, 0} 구간 하나를 만든다")
+    void shouldCreateSingleEmptyRangeForEmptyTable() {
+        // Given - 조건에 맞는 행이 없다
+        jdbcTemplate.update("INSERT INTO victims (id, status) VALUES (1, 'ALIVE')");
+
+        // When
+        Map<String, ExecutionContext> equalWidth = partitioner(false).partition(4);
+        Map<String, ExecutionContext> balanced = partitioner(true).partition(4);
+
+        // Then
+        assertThat(ranges(equalWidth)).containsExactly(List.of(1L, 0L));
+        assertThat(ranges(balanced)).containsExactly(List.of(1L, 0L));
+    }
+
+    private ColumnRangePartitioner partitioner(boolean balanced) {
+        ColumnRangePartitioner partitioner = new ColumnRangePartitioner(dataSource, "victims", "id");
+        partitioner.setWhereClause("status = 'TERMINATED'");
+        partitioner.setBalanced(balanced);
+        return partitioner;
+    }
+
+    private void insert(LongStream ids) {
+        ids.forEach(id -> jdbcTemplate.update("INSERT INTO victims (id, status) VALUES (?, 'TERMINATED')", id));
+    }
+
+    private List<List<Long>> ranges(Map<String, ExecutionContext> partitions) {
+        return partitions.values().stream()
+                .map(context -> List.of(
+                        context.getLong(ColumnRangePartitioner.MIN_ID_KEY),
+                        context.getLong(ColumnRangePartitioner.MAX_ID_KEY)))
+                .toList();
+    }
+}
@@ -0,0 +1,104 @@
+package com.system.batch.killbatchsystem;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.system.batch.killbatchsystem.partitional.BattlefieldLog;
+import com.system.batch.killbatchsystem.partitional.BattlefieldLogPersistenceJobConfig;
+import com.system.batch.killbatchsystem.redis.CompactBinaryRedisSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * 💀 같은 BattlefieldLog들을 기존 JSON codec과 바이너리 codec으로 직렬화해 비교한다 💀
+ * 크기와 처리 시간을 출력한다. ./gradlew benchmark 로만 돈다.
+ * 값 하나하나의 왕복/마이그레이션 검증은 CompactBinaryRedisSerializerTest에 있다.
+ */
+@Tag("benchmark")
+class CompactBinaryRedisSerializerBenchmarkTest {
+    private static final int LOGS = 100_000;
+    private static final String[] REGIONS = {"NORTH_AMERICA", "SOUTH_AMERICA", "EUROPE", "ASIA", "AFRICA", "OCEANIA"};
+    private static final String[] SOURCES = {"SKYNET_CORE", "T800", "T1000", "HK_AERIAL", "GROUND_UNIT", "T-X"};
+    private static final String[] LEVELS = {"INFO", "WARNING", "ERROR", "CRITICAL"};
+    private static final String[] CATEGORIES = {"COMBAT", "SURVEILLANCE", "MAINTENANCE", "INTELLIGENCE"};
+
+    private RedisSerializer<BattlefieldLog> json;
+    private CompactBinaryRedisSerializer<BattlefieldLog> binary;
+    private List<BattlefieldLog> logs;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        json = new Jackson2JsonRedisSerializer<>(mapper, BattlefieldLog.class);
+        binary = BattlefieldLogPersistenceJobConfig.compactBattlefieldLogCodec(json);
+
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0, 0);
+        logs = new ArrayList<>(LOGS);
+        for (int i = 0; i < LOGS; i++) {
+            logs.add(BattlefieldLog.builder()
+                    .id("log-" + i)
+                    .timestamp(base.plusSeconds(i))
+                    .region(REGIONS[i % REGIONS.length])
+                    .source(SOURCES[i % SOURCES.length]) // 💀 T-X는 사전에 없는 값이다 💀
+                    .level(LEVELS[i % LEVELS.length])
+                    .category(i % 100 == 0 ? null : CATEGORIES[i % CATEGORIES.length])
+                    .message("Target acquired " + i)
+                    .build());
+        }
+    }
+
+    @Test
+    @DisplayName("바이너리 codec은 JSON과 같은 값을 더 작게 저장한다")
+    void compareWithJson() {
+        // 💀 워밍업 💀
+        run(json);
+        run(binary);
+
+        Result jsonResult = run(json);
+        Result binaryResult = run(binary);
+
+        System.out.printf("json  : %,d bytes, serialize %d ms, deserialize %d ms%n",
+                jsonResult.bytes(), jsonResult.serializeMillis(), jsonResult.deserializeMillis());
+        System.out.printf("binary: %,d bytes, serialize %d ms, deserialize %d ms%n",
+                binaryResult.bytes(), binaryResult.serializeMillis(), binaryResult.deserializeMillis());
+
+        assertThat(binaryResult.decoded()).isEqualTo(logs);
+        assertThat(jsonResult.decoded()).isEqualTo(logs);
+        assertThat(binaryResult.bytes()).isLessThan(jsonResult.bytes() / 2);
+    }
+
+    private Result run(RedisSerializer<BattlefieldLog> codec) {
+        long start = System.nanoTime();
+        List<byte[]> encoded = new ArrayList<>(logs.size());
+        long bytes = 0;
+        for (BattlefieldLog log : logs) {
+            byte[] raw = codec.serialize(log);
+            encoded.add(raw);
+            bytes += raw.length;
+        }
+        long serialized = System.nanoTime();
+
+        List<BattlefieldLog> decoded = new ArrayList<>(encoded.size());
+        for (byte[] raw : encoded) {
+            decoded.add(codec.deserialize(raw));
+        }
+        long deserialized = System.nanoTime();
+
+        return new Result(bytes, (serialized - start) / 1_000_000, (deserialized - serialized) / 1_000_000, decoded);
+    }
+
+    private record Result(long bytes, long serializeMillis, long deserializeMillis, List<BattlefieldLog> decoded) {
+    }
+}
@@ -0,0 +1,94 @@
+package com.system.batch.killbatchsystem;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.system.batch.killbatchsystem.partitional.BattlefieldLog;
+import com.system.batch.killbatchsystem.partitional.BattlefieldLogPersistenceJobConfig;
+import com.system.batch.killbatchsystem.redis.CompactBinaryRedisSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompactBinaryRedisSerializerTest {
+    private RedisSerializer<BattlefieldLog> json;
+    private CompactBinaryRedisSerializer<BattlefieldLog> binary;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        json = new Jackson2JsonRedisSerializer<>(mapper, BattlefieldLog.class);
+        binary = BattlefieldLogPersistenceJobConfig.compactBattlefieldLogCodec(json);
+    }
+
+    @Test
+    @DisplayName("💀 사전에 없는 값, null 필드, 나노초까지 그대로 왕복하고 JSON보다 작다")
+    void shouldRoundTrip() {
+        // Given - T-X는 사전에 없고 category는 null
+        BattlefieldLog log = BattlefieldLog.builder()
+                .id("log-1")
+                .timestamp(LocalDateTime.of(2025, 1, 1, 12, 34, 56, 789_000_000))
+                .region("ASIA")
+                .source("T-X")
+                .level("CRITICAL")
+                .category(null)
+                .message("Target acquired, \"unit\" 한글")
+                .build();
+
+        // When
+        byte[] encoded = binary.serialize(log);
+
+        // Then
+        assertThat(binary.deserialize(encoded)).isEqualTo(log);
+        assertThat(encoded.length).isLessThan(json.serialize(log).length / 2);
+    }
+
+    @Test
+    @DisplayName("💀 마이그레이션 중: JSON으로 저장된 값도 바이너리 codec으로 읽힌다")
+    void shouldReadLegacyJson() {
+        // Given
+        BattlefieldLog log = BattlefieldLog.builder()
+                .id("log-2")
+                .timestamp(LocalDateTime.of(2025, 1, 1, 0, 0))
+                .region("EUROPE")
+                .source("T800")
+                .level("INFO")
+                .category("COMBAT")
+                .message("legacy")
+                .build();
+
+        // When & Then
+        assertThat(binary.deserialize(json.serialize(log))).isEqualTo(log);
+    }
+
+    @Test
+    @DisplayName("💀 다른 스키마 버전이나 잘린 값은 읽지 않고 예외를 던진다")
+    void shouldRejectOtherVersionAndTruncatedValue() {
+        // Given
+        BattlefieldLog log = BattlefieldLog.builder().id("log-3").message("cut").build();
+        byte[] encoded = binary.serialize(log);
+        CompactBinaryRedisSerializer<BattlefieldLog> version2 = CompactBinaryRedisSerializer
+                .builder(BattlefieldLog.class, BattlefieldLog::new)
+                .version(2)
+                .string(BattlefieldLog::getId, BattlefieldLog::setId)
+                .build();
+
+        // When & Then
+        assertThatThrownBy(() -> version2.deserialize(encoded))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("version");
+        assertThatThrownBy(() -> binary.deserialize(Arrays.copyOf(encoded, encoded.length - 2)))
+                .isInstanceOf(SerializationException.class);
+    }
+}
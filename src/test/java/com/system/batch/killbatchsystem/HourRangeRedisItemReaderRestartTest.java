@@ -0,0 +1,144 @@
+package com.system.batch.killbatchsystem;
+
+import com.system.batch.killbatchsystem.partitional.HourRangeRedisItemReader;
+import com.system.batch.killbatchsystem.redis.RedisMultiGetFetcher;
+import com.system.batch.killbatchsystem.redis.ResumableKeyScanner;
+import com.system.batch.killbatchsystem.redis.ResumableKeyScanner.ScanPage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HourRangeRedisItemReaderRestartTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final String PATTERN = "logs:2025010100:*";
+
+    // 💀 커서 → 그 커서로 SCAN 했을 때의 페이지. 실행 사이에 바꿔 끼워 키 만료를 흉내 낸다 💀
+    private final Map<String, ScanPage> pages = new HashMap<>();
+
+    @Test
+    @DisplayName("💀 실행 사이에 키가 만료돼 SCAN 페이지가 줄어도 재시작 시 처리하지 않은 키를 놓치지 않는다")
+    void shouldNotLoseKeysWhenResumedPageShrinks() throws Exception {
+        // Given - 1페이지 [a, b, c] (다음 커서 7), 2페이지 [d, e]
+        pages.put("0", new ScanPage(List.of("a", "b", "c"), "7", false));
+        pages.put("7", new ScanPage(List.of("d", "e"), "0", true));
+        ExecutionContext executionContext = new ExecutionContext();
+
+        // When - 첫 실행은 a, b까지만 넘기고 커밋한 뒤 죽는다
+        HourRangeRedisItemReader<String> firstRun = reader();
+        firstRun.open(executionContext);
+        List<String> firstItems = List.of(firstRun.read(), firstRun.read());
+        firstRun.update(executionContext);
+        firstRun.close();
+
+        // 💀 재시작 전에 a가 만료돼 같은 커서의 페이지가 [b, c]로 줄었다 💀
+        pages.put("0", new ScanPage(List.of("b", "c"), "7", false));
+
+        HourRangeRedisItemReader<String> secondRun = reader();
+        secondRun.open(executionContext);
+        List<String> secondItems = readAll(secondRun);
+        secondRun.update(executionContext);
+        secondRun.close();
+
+        // Then - 중복(b)은 생겨도 c, d, e는 모두 다시 넘어온다
+        assertThat(firstItems).containsExactly("a", "b");
+        assertThat(secondItems).contains("c", "d", "e");
+        @SuppressWarnings("unchecked")
+        Map<String, String> progress = (Map<String, String>) executionContext.get("scanProgress");
+        assertThat(progress).containsEntry("2025010100", "DONE");
+    }
+
+    @Test
+    @DisplayName("💀 끝까지 읽은 버킷은 재시작 시 다시 SCAN 하지 않는다")
+    void shouldSkipCompletedBucketOnRestart() throws Exception {
+        // Given
+        pages.put("0", new ScanPage(List.of("a", "b"), "0", true));
+        ExecutionContext executionContext = new ExecutionContext();
+
+        HourRangeRedisItemReader<String> firstRun = reader();
+        firstRun.open(executionContext);
+        assertThat(readAll(firstRun)).containsExactly("a", "b");
+        firstRun.update(executionContext);
+        firstRun.close();
+
+        // When
+        pages.clear();
+        HourRangeRedisItemReader<String> secondRun = reader();
+        secondRun.open(executionContext);
+        List<String> secondItems = readAll(secondRun);
+        secondRun.close();
+
+        // Then
+        assertThat(secondItems).isEmpty();
+    }
+
+    @Test
+    @DisplayName("💀 정시가 아닌 양 끝 버킷에서만 구간 밖 값을 걸러내고, 시각이 없는 값은 넘긴다")
+    void shouldFilterOnlyPartialBucketsAndPassValuesWithoutTimestamp() throws Exception {
+        // Given - [00:30, 02:30) 파티션, 버킷 00/01/02. 키 → 시각 (null-ts는 시각 없음)
+        Map<String, LocalDateTime> timestamps = new HashMap<>();
+        timestamps.put("before", START.plusMinutes(10));
+        timestamps.put("start", START.plusMinutes(40));
+        timestamps.put("middle", START.plusHours(1).plusMinutes(5));
+        timestamps.put("end", START.plusHours(2).plusMinutes(10));
+        timestamps.put("after", START.plusHours(2).plusMinutes(45));
+        Map<String, ScanPage> bucketPages = Map.of(
+                "logs:2025010100:*", new ScanPage(List.of("before", "start", "null-ts"), "0", true),
+                "logs:2025010101:*", new ScanPage(List.of("middle"), "0", true),
+                "logs:2025010102:*", new ScanPage(List.of("end", "after"), "0", true));
+
+        ResumableKeyScanner scanner = mock(ResumableKeyScanner.class);
+        when(scanner.scan(anyString(), anyString(), anyLong()))
+                .thenAnswer(invocation -> bucketPages.get(invocation.<String>getArgument(0)));
+        HourRangeRedisItemReader<String> reader = new HourRangeRedisItemReader<>(scanner, echoFetcher(), "logs:",
+                START.plusMinutes(30), START.plusHours(2).plusMinutes(30), 100, 1, 100, 2);
+        reader.setTimestampExtractor(timestamps::get);
+
+        // When
+        reader.open(new ExecutionContext());
+        List<String> items = readAll(reader);
+        reader.close();
+
+        // Then
+        assertThat(items).containsExactly("start", "null-ts", "middle", "end");
+    }
+
+    private HourRangeRedisItemReader<String> reader() {
+        ResumableKeyScanner scanner = mock(ResumableKeyScanner.class);
+        when(scanner.scan(eq(PATTERN), anyString(), anyLong()))
+                .thenAnswer(invocation -> pages.get(invocation.<String>getArgument(1)));
+
+        return new HourRangeRedisItemReader<>(scanner, echoFetcher(), "logs:",
+                START, START.plusHours(1), 100, 1, 100, 2);
+    }
+
+    private RedisMultiGetFetcher<String> echoFetcher() {
+        @SuppressWarnings("unchecked")
+        RedisMultiGetFetcher<String> fetcher = mock(RedisMultiGetFetcher.class);
+        // 💀 값은 키와 같다 💀
+        when(fetcher.fetchAligned(anyList())).thenAnswer(invocation -> new ArrayList<>(invocation.<List<String>>getArgument(0)));
+        return fetcher;
+    }
+
+    private List<String> readAll(HourRangeRedisItemReader<String> reader) throws Exception {
+        List<String> items = new ArrayList<>();
+        String item;
+        while ((item = reader.read()) != null) {
+            items.add(item);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,118 @@
+package com.system.batch.killbatchsystem;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * 💀 entity 모드(threatAnalysisStep)와 projection 모드(threatProjectionStep)가 같은 데이터에서 같은 결과를 쓰는지 확인한다 💀
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class HumanThreatAnalysisReaderModeTest {
+    private static final LocalDate FROM_DATE = LocalDate.of(2029, 1, 1);
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Step threatAnalysisStep;
+
+    @Autowired
+    private Step threatProjectionStep;
+
+    @TempDir
+    private Path tempDir;
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.update("DELETE FROM activities");
+        jdbcTemplate.update("DELETE FROM humans");
+    }
+
+    @Test
+    @DisplayName("💀 두 모드 모두 fromDate 이후 활동만 세고, 같은 대상자에게 같은 점수를 매긴다")
+    void shouldWriteSameResultsInBothModes() throws Exception {
+        // Given - 1번은 오래된 활동과 최근 활동이 섞여 있고, 2번은 오래된 활동뿐, 3번은 전사자
+        insertHuman(1, "John Connor", false);
+        insertHuman(2, "Kyle Reese", false);
+        insertHuman(3, "Sarah Connor", true);
+        insertHuman(4, "Marcus Wright", false);
+        insertActivity(1, 1, 80.0, FROM_DATE.minusDays(10));
+        insertActivity(2, 1, 40.0, FROM_DATE.plusDays(1));
+        insertActivity(3, 1, 30.0, FROM_DATE.plusDays(2));
+        insertActivity(4, 2, 90.0, FROM_DATE.minusDays(1));
+        insertActivity(5, 3, 90.0, FROM_DATE.plusDays(1));
+        insertActivity(6, 4, 10.0, FROM_DATE.plusDays(3));
+        insertActivity(7, 4, 20.0, FROM_DATE);
+
+        // When
+        List<String> entityResults = run(threatAnalysisStep, tempDir.resolve("entity"));
+        List<String> projectionResults = run(threatProjectionStep, tempDir.resolve("projection"));
+
+        // Then - 1번: (40 + 30) * 0.5 + 2 * 10 = 55, 4번: 10 * 0.5 + 1 * 10 = 15
+        assertThat(entityResults).containsExactly(
+                "1,John Connor,HIGH,55,70.0,2",
+                "4,Marcus Wright,IGNORE,15,10.0,1");
+        assertThat(projectionResults).isEqualTo(entityResults);
+    }
+
+    /*
+     * 💀 step 하나짜리 Job으로 돌리고, 헤더를 뺀 결과 줄을 humanId 순으로 돌려준다 (멀티스레드라 쓰는 순서는 정해져 있지 않다) 💀
+     */
+    private List<String> run(Step step, Path outputPath) throws Exception {
+        Files.createDirectories(outputPath);
+        JobParameters jobParameters = new JobParametersBuilder()
+                .addLocalDate("fromDate", FROM_DATE)
+                .addString("outputPath", outputPath.toString())
+                .toJobParameters();
+
+        JobExecution jobExecution = jobLauncher.run(
+                new JobBuilder(step.getName() + "ModeJob", jobRepository).start(step).build(),
+                jobParameters);
+
+        assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        return Files.readAllLines(outputPath.resolve("termination-targets.csv")).stream()
+                .filter(line -> !line.startsWith("#") && !line.startsWith("HUMAN_ID"))
+                .sorted()
+                .toList();
+    }
+
+    private void insertHuman(long id, String name, boolean terminated) {
+        jdbcTemplate.update("INSERT INTO humans (id, name, rank, terminated) VALUES (?, ?, ?, ?)",
+                id, name, "SOLDIER", terminated);
+    }
+
+    private void insertActivity(long id, long humanId, double severityIndex, LocalDate detectionDate) {
+        jdbcTemplate.update("""
+                INSERT INTO activities (id, human_id, severity_index, detection_date, activity_type, location)
+                VALUES (?, ?, ?, ?, ?, ?)""",
+                id, humanId, severityIndex, detectionDate, "COMBAT", "LA");
+    }
+}
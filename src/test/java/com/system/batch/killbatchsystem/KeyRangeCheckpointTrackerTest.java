@@ -0,0 +1,105 @@
+package com.system.batch.killbatchsystem;
+
+import com.system.batch.killbatchsystem.multi_thread_step.KeyRangeCheckpointTracker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyRangeCheckpointTrackerTest {
+
+    @Test
+    @DisplayName("💀 앞 페이지가 다 써지기 전에는 watermark가 오르지 않고, 먼저 써진 키는 writtenKeys로 남는다")
+    void shouldAdvanceWatermarkOnlyOverContiguousPages() throws Exception {
+        // Given - (-, 10], (10, 20] 두 페이지를 예약했다
+        KeyRangeCheckpointTracker tracker = new KeyRangeCheckpointTracker();
+        tracker.open(new ExecutionContext());
+        tracker.pageClaimed(10L);
+        tracker.pageClaimed(20L);
+        tracker.pageLoaded(10L, List.of(1L, 5L, 10L));
+        tracker.pageLoaded(20L, List.of(15L, 20L));
+
+        // When - 뒤 페이지의 15가 먼저 써졌다
+        tracker.append(List.of(15L), () -> 50L);
+        tracker.markDurable();
+        ExecutionContext first = new ExecutionContext();
+        tracker.update(first);
+
+        // Then
+        assertThat(first.containsKey("checkpoint.lastKey")).isFalse();
+        assertThat(first.get("checkpoint.writtenKeys")).isEqualTo(List.of(15L));
+        assertThat(first.getLong("checkpoint.outputOffset")).isEqualTo(50L);
+
+        // When - 앞 페이지가 끝난다 (10은 Processor가 걸러냈다)
+        tracker.append(List.of(1L, 5L), () -> 80L);
+        tracker.filtered(10L);
+        tracker.markDurable();
+        ExecutionContext second = new ExecutionContext();
+        tracker.update(second);
+
+        // Then
+        assertThat(second.getLong("checkpoint.lastKey")).isEqualTo(10L);
+        assertThat(second.get("checkpoint.writtenKeys")).isEqualTo(List.of(15L));
+        assertThat(second.getLong("checkpoint.outputOffset")).isEqualTo(80L);
+    }
+
+    @Test
+    @DisplayName("💀 update()는 markDurable()로 찍힌 상태만 남긴다")
+    void shouldOnlySaveDurableState() throws Exception {
+        // Given
+        KeyRangeCheckpointTracker tracker = new KeyRangeCheckpointTracker();
+        tracker.open(new ExecutionContext());
+        tracker.pageClaimed(10L);
+        tracker.pageLoaded(10L, List.of(1L, 2L));
+        tracker.append(List.of(1L), () -> 30L);
+        tracker.markDurable();
+
+        // When - 2는 출력에 붙었지만 아직 디스크에 내려가지 않았다
+        tracker.append(List.of(2L), () -> 60L);
+        ExecutionContext executionContext = new ExecutionContext();
+        tracker.update(executionContext);
+
+        // Then
+        assertThat(executionContext.containsKey("checkpoint.lastKey")).isFalse();
+        assertThat(executionContext.get("checkpoint.writtenKeys")).isEqualTo(List.of(1L));
+        assertThat(executionContext.getLong("checkpoint.outputOffset")).isEqualTo(30L);
+    }
+
+    @Test
+    @DisplayName("💀 재시작하면 watermark 다음부터 읽고, 먼저 써진 키는 건너뛰고, 출력 길이를 돌려준다")
+    void shouldRestoreCheckpointOnRestart() throws Exception {
+        // Given - 10까지 다 써졌고, 15는 먼저 써졌다
+        ExecutionContext executionContext = new ExecutionContext();
+        executionContext.putLong("checkpoint.lastKey", 10L);
+        executionContext.put("checkpoint.writtenKeys", new ArrayList<>(List.of(15L)));
+        executionContext.putLong("checkpoint.outputOffset", 80L);
+
+        // When
+        KeyRangeCheckpointTracker tracker = new KeyRangeCheckpointTracker();
+        tracker.open(executionContext);
+
+        // Then
+        assertThat(tracker.isRestarted()).isTrue();
+        assertThat(tracker.getResumeAfter()).isEqualTo(10L);
+        assertThat(tracker.getOutputOffset()).isEqualTo(80L);
+        assertThat(tracker.isAlreadyWritten(15L)).isTrue();
+        assertThat(tracker.isAlreadyWritten(20L)).isFalse();
+
+        // When - Reader가 15를 거르고 (10, 20] 페이지를 마저 쓴다
+        tracker.pageClaimed(20L);
+        tracker.pageLoaded(20L, List.of(20L));
+        tracker.append(List.of(20L), () -> 90L);
+        tracker.markDurable();
+        ExecutionContext next = new ExecutionContext();
+        tracker.update(next);
+
+        // Then - watermark를 넘어선 복원 키는 더 이상 남기지 않는다
+        assertThat(next.getLong("checkpoint.lastKey")).isEqualTo(20L);
+        assertThat(next.get("checkpoint.writtenKeys")).isEqualTo(List.of());
+        assertThat(next.getLong("checkpoint.outputOffset")).isEqualTo(90L);
+    }
+}
@@ -0,0 +1,83 @@
+package com.system.batch.killbatchsystem;
+
+import com.system.batch.killbatchsystem.jpa.paging.KeysetJpaItemReader;
+import com.system.batch.killbatchsystem.multi_thread_step.HumanThreatSummary;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class KeysetJpaItemReaderTest {
+    private static final LocalDate FROM_DATE = LocalDate.of(2029, 1, 1);
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.update("DELETE FROM activities");
+        jdbcTemplate.update("DELETE FROM humans");
+    }
+
+    @Test
+    @DisplayName("💀 JOIN에만 쓰인 파라미터는 페이지 경계 조회에 묶지 않고, 모든 페이지를 빠짐없이 읽는다")
+    void shouldBindJoinOnlyParameterToPageQueryOnly() throws Exception {
+        // Given - 생존자 5명, 각자 fromDate 이전 활동 1건과 이후 활동 id건
+        for (long id = 1; id <= 5; id++) {
+            jdbcTemplate.update("INSERT INTO humans (id, name, rank, terminated) VALUES (?, ?, ?, ?)",
+                    id, "human-" + id, "SOLDIER", false);
+            insertActivity(id * 10, id, FROM_DATE.minusDays(1));
+            for (long n = 1; n <= id; n++) {
+                insertActivity(id * 10 + n, id, FROM_DATE.plusDays(n));
+            }
+        }
+
+        // 💀 :fromDate는 JOIN에만 있다. 경계 조회(JOIN 없음)에 묶으면 IllegalArgumentException 💀
+        KeysetJpaItemReader<HumanThreatSummary> reader =
+                new KeysetJpaItemReader<>(entityManagerFactory, HumanThreatSummary.class, "Human h", "h");
+        reader.setSelectClause("""
+            new com.system.batch.killbatchsystem.multi_thread_step.HumanThreatSummary(
+                h.id, h.name, SUM(act.severityIndex), COUNT(act))
+            """);
+        reader.setJoinClause("JOIN h.activities act ON act.detectionDate > :fromDate");
+        reader.setWhereClause("h.terminated = FALSE");
+        reader.setGroupByClause("h.id, h.name");
+        reader.setParameterValues(Map.of("fromDate", FROM_DATE));
+        reader.setPageSize(2);
+        reader.afterPropertiesSet();
+
+        // When
+        List<HumanThreatSummary> summaries = new ArrayList<>();
+        HumanThreatSummary summary;
+        while ((summary = reader.read()) != null) {
+            summaries.add(summary);
+        }
+
+        // Then - 페이지 3개(2, 2, 1)에서 fromDate 이후 활동만 집계된다
+        assertThat(summaries).extracting(HumanThreatSummary::humanId).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(summaries).extracting(HumanThreatSummary::activityCount).containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+
+    private void insertActivity(long id, long humanId, LocalDate detectionDate) {
+        jdbcTemplate.update("""
+                INSERT INTO activities (id, human_id, severity_index, detection_date, activity_type, location)
+                VALUES (?, ?, ?, ?, ?, ?)""",
+                id, humanId, 10.0, detectionDate, "COMBAT", "LA");
+    }
+}
@@ -0,0 +1,123 @@
+package com.system.batch.killbatchsystem;
+
+import com.system.batch.killbatchsystem.partitional.BattlefieldLog;
+import com.system.batch.killbatchsystem.partitional.MappedBattlefieldLogReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.core.io.FileSystemResource;
+
+import java.beans.PropertyEditorSupport;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * 💀 기존 FlatFileItemReader 경로와 MappedBattlefieldLogReader를 같은 파일로 비교한다 💀
+ * 결과가 완전히 같은지 확인하고, 각각의 처리 시간을 출력한다. ./gradlew benchmark 로만 돈다.
+ * 작은 파일로 하는 정확성 검증은 MappedBattlefieldLogReaderTest에 있다.
+ */
+@Tag("benchmark")
+class MappedBattlefieldLogReaderBenchmarkTest {
+    private static final int LINES = 200_000;
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final String[] REGIONS = {"NORTH_AMERICA", "SOUTH_AMERICA", "EUROPE", "ASIA", "AFRICA", "OCEANIA"};
+    private static final String[] SOURCES = {"SKYNET_CORE", "T800", "T1000", "HK_AERIAL", "GROUND_UNIT"};
+    private static final String[] LEVELS = {"INFO", "WARNING", "ERROR", "CRITICAL"};
+    private static final String[] CATEGORIES = {"COMBAT", "SURVEILLANCE", "MAINTENANCE", "INTELLIGENCE"};
+
+    @TempDir
+    private Path tempDir;
+
+    private Path csv;
+
+    @BeforeEach
+    void createCsv() throws IOException {
+        csv = tempDir.resolve("battlefield.csv");
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0, 0);
+        try (BufferedWriter writer = Files.newBufferedWriter(csv)) {
+            writer.write("id,timestamp,region,source,level,category,message\n");
+            for (int i = 0; i < LINES; i++) {
+                writer.write(String.join(",",
+                        "log-" + i,
+                        base.plusSeconds(i).format(TIMESTAMP_FORMATTER),
+                        REGIONS[i % REGIONS.length],
+                        SOURCES[i % SOURCES.length],
+                        LEVELS[i % LEVELS.length],
+                        CATEGORIES[i % CATEGORIES.length],
+                        i % 10 == 0 ? "\"Target acquired, \"\"unit\"\" " + i + "\"" : "Target acquired " + i));
+                writer.write('\n');
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("💀 메모리 매핑 Reader는 기존 Reader와 같은 결과를 더 빠르게 읽는다")
+    void mappedReaderMatchesFlatFileReader() throws Exception {
+        // warm-up
+        readAll(flatFileReader());
+        readAll(mappedReader());
+
+        long flatStart = System.nanoTime();
+        List<BattlefieldLog> expected = readAll(flatFileReader());
+        long flatNanos = System.nanoTime() - flatStart;
+
+        long mappedStart = System.nanoTime();
+        List<BattlefieldLog> actual = readAll(mappedReader());
+        long mappedNanos = System.nanoTime() - mappedStart;
+
+        System.out.printf("FlatFileItemReader: %d ms, MappedBattlefieldLogReader: %d ms (%d lines)%n",
+                flatNanos / 1_000_000, mappedNanos / 1_000_000, LINES);
+
+        assertThat(actual).hasSize(LINES).isEqualTo(expected);
+    }
+
+    private List<BattlefieldLog> readAll(ItemStreamReader<BattlefieldLog> reader) throws Exception {
+        List<BattlefieldLog> items = new ArrayList<>(LINES);
+        reader.open(new ExecutionContext());
+        BattlefieldLog item;
+        while ((item = reader.read()) != null) {
+            items.add(item);
+        }
+        reader.close();
+        return items;
+    }
+
+    private FlatFileItemReader<BattlefieldLog> flatFileReader() {
+        return new FlatFileItemReaderBuilder<BattlefieldLog>()
+                .name("battlefieldLogReader")
+                .resource(new FileSystemResource(csv))
+                .linesToSkip(1)
+                .delimited()
+                .names("id", "timestamp", "region", "source", "level", "category", "message")
+                .targetType(BattlefieldLog.class)
+                .customEditors(Map.of(LocalDateTime.class, new PropertyEditorSupport() {
+                    @Override
+                    public void setAsText(String text) {
+                        setValue(LocalDateTime.parse(text));
+                    }
+                }))
+                .build();
+    }
+
+    private MappedBattlefieldLogReader mappedReader() throws IOException {
+        MappedBattlefieldLogReader reader =
+                new MappedBattlefieldLogReader(new FileSystemResource(csv), 0, Files.size(csv), true);
+        reader.setName("battlefieldLogReader");
+        return reader;
+    }
+}
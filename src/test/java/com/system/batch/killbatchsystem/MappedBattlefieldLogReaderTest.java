@@ -0,0 +1,175 @@
+package com.system.batch.killbatchsystem;
+
+import com.system.batch.killbatchsystem.partitional.BattlefieldLog;
+import com.system.batch.killbatchsystem.partitional.MappedBattlefieldLogReader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.batch.item.file.transform.FlatFileFormatException;
+import org.springframework.batch.item.file.transform.IncorrectTokenCountException;
+import org.springframework.core.io.FileSystemResource;
+
+import java.beans.PropertyEditorSupport;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MappedBattlefieldLogReaderTest {
+    private static final String HEADER = "id,timestamp,region,source,level,category,message";
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    @DisplayName("💀 윈도우 경계에 걸친 줄과 따옴표 필드까지 FlatFileItemReader와 같은 결과를 읽는다")
+    void shouldMatchFlatFileItemReader() throws Exception {
+        // Given - 윈도우(256바이트)보다 훨씬 긴 파일
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            lines.add(String.join(",", "log-" + i, String.format("2025-01-01T00:%02d:%02d", i / 60, i % 60),
+                    i % 2 == 0 ? "ASIA" : "EUROPE", "T800", "INFO", "COMBAT",
+                    i % 5 == 0 ? "\"Target acquired, \"\"unit\"\" " + i + "\"" : "Target acquired " + i));
+        }
+        Path csv = csv(lines);
+
+        // When
+        List<BattlefieldLog> expected = readAll(flatFileReader(csv));
+        List<BattlefieldLog> actual = readAll(mappedReader(csv));
+
+        // Then
+        assertThat(actual).hasSize(200).isEqualTo(expected);
+        assertThat(actual.get(5).getMessage()).isEqualTo("Target acquired, \"unit\" 5");
+    }
+
+    @Test
+    @DisplayName("💀 재시작 시 마지막으로 저장된 바이트 위치부터 이어 읽는다")
+    void shouldResumeFromSavedPosition() throws Exception {
+        // Given
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            lines.add("log-" + i + ",2025-01-01T00:00:00,ASIA,T800,INFO,COMBAT,Target acquired " + i);
+        }
+        Path csv = csv(lines);
+        ExecutionContext context = new ExecutionContext();
+
+        MappedBattlefieldLogReader first = mappedReader(csv);
+        first.open(context);
+        for (int i = 0; i < 12; i++) {
+            first.read();
+        }
+        first.update(context);
+        first.close();
+
+        // When
+        MappedBattlefieldLogReader restarted = mappedReader(csv);
+        restarted.open(context);
+        BattlefieldLog next = restarted.read();
+        restarted.close();
+
+        // Then
+        assertThat(next.getId()).isEqualTo("log-12");
+    }
+
+    @Test
+    @DisplayName("💀 필드 수가 7개가 아닌 줄은 자르지 않고 IncorrectTokenCountException으로 실패한다")
+    void shouldFailOnWrongFieldCount() throws Exception {
+        // Given - 따옴표 없는 쉼표가 든 message(8개), category가 빠진 줄(6개)
+        Path tooMany = csv(List.of("log-0,2025-01-01T00:00:00,ASIA,T800,INFO,COMBAT,Target acquired, unit 7"));
+        MappedBattlefieldLogReader tooManyReader = mappedReader(tooMany);
+        tooManyReader.open(new ExecutionContext());
+
+        // When & Then
+        assertThatThrownBy(tooManyReader::read)
+                .isInstanceOfSatisfying(IncorrectTokenCountException.class, e -> {
+                    assertThat(e.getExpectedCount()).isEqualTo(7);
+                    assertThat(e.getActualCount()).isEqualTo(8);
+                    assertThat(e.getInput()).endsWith("Target acquired, unit 7");
+                });
+        tooManyReader.close();
+
+        Path tooFew = csv(List.of("log-0,2025-01-01T00:00:00,ASIA,T800,INFO,Target acquired"));
+        MappedBattlefieldLogReader tooFewReader = mappedReader(tooFew);
+        tooFewReader.open(new ExecutionContext());
+        assertThatThrownBy(tooFewReader::read)
+                .isInstanceOfSatisfying(IncorrectTokenCountException.class,
+                        e -> assertThat(e.getActualCount()).isEqualTo(6));
+        tooFewReader.close();
+    }
+
+    @Test
+    @DisplayName("💀 닫히지 않은 따옴표나 닫는 따옴표 뒤의 문자는 FlatFileFormatException으로 실패한다")
+    void shouldFailOnMalformedQuotes() throws Exception {
+        // Given
+        Path unterminated = csv(List.of("log-0,2025-01-01T00:00:00,ASIA,T800,INFO,COMBAT,\"Target acquired"));
+        MappedBattlefieldLogReader unterminatedReader = mappedReader(unterminated);
+        unterminatedReader.open(new ExecutionContext());
+
+        // When & Then
+        assertThatThrownBy(unterminatedReader::read)
+                .isInstanceOf(FlatFileFormatException.class)
+                .hasMessageContaining("Unterminated");
+        unterminatedReader.close();
+
+        Path trailing = csv(List.of("log-0,2025-01-01T00:00:00,\"ASIA\"x,T800,INFO,COMBAT,Target acquired"));
+        MappedBattlefieldLogReader trailingReader = mappedReader(trailing);
+        trailingReader.open(new ExecutionContext());
+        assertThatThrownBy(trailingReader::read)
+                .isInstanceOf(FlatFileFormatException.class)
+                .hasMessageContaining("after quoted field 3");
+        trailingReader.close();
+    }
+
+    private Path csv(List<String> lines) throws IOException {
+        Path csv = tempDir.resolve("battlefield.csv");
+        Files.writeString(csv, HEADER + "\n" + String.join("\n", lines) + "\n");
+        return csv;
+    }
+
+    private List<BattlefieldLog> readAll(ItemStreamReader<BattlefieldLog> reader) throws Exception {
+        List<BattlefieldLog> items = new ArrayList<>();
+        reader.open(new ExecutionContext());
+        BattlefieldLog item;
+        while ((item = reader.read()) != null) {
+            items.add(item);
+        }
+        reader.close();
+        return items;
+    }
+
+    private FlatFileItemReader<BattlefieldLog> flatFileReader(Path csv) {
+        return new FlatFileItemReaderBuilder<BattlefieldLog>()
+                .name("battlefieldLogReader")
+                .resource(new FileSystemResource(csv))
+                .linesToSkip(1)
+                .delimited()
+                .names("id", "timestamp", "region", "source", "level", "category", "message")
+                .targetType(BattlefieldLog.class)
+                .customEditors(Map.of(LocalDateTime.class, new PropertyEditorSupport() {
+                    @Override
+                    public void setAsText(String text) {
+                        setValue(LocalDateTime.parse(text));
+                    }
+                }))
+                .build();
+    }
+
+    private MappedBattlefieldLogReader mappedReader(Path csv) throws IOException {
+        MappedBattlefieldLogReader reader =
+                new MappedBattlefieldLogReader(new FileSystemResource(csv), 0, Files.size(csv), true);
+        reader.setName("battlefieldLogReader");
+        // 💀 작은 윈도우로 윈도우 경계에 걸친 줄도 함께 검증한다 💀
+        reader.setWindowSize(256);
+        return reader;
+    }
+}
@@ -0,0 +1,60 @@
+package com.system.batch.killbatchsystem;
+
+import com.system.batch.killbatchsystem.AsyncItemProcessor.OrderedAsyncItemWriter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.Chunk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderedAsyncItemWriterTest {
+    private final List<String> written = new ArrayList<>();
+
+    @Test
+    @DisplayName("💀 늦게 끝난 아이템도 입력 순서대로 쓰고, null 결과는 쓰지 않는다")
+    void shouldWriteInInputOrderAndSkipNulls() throws Exception {
+        // Given - 뒤 아이템이 먼저 끝난다
+        CompletableFuture<String> first = new CompletableFuture<>();
+        CompletableFuture<String> filtered = new CompletableFuture<>();
+        CompletableFuture<String> last = CompletableFuture.completedFuture("c");
+        filtered.complete(null);
+        CompletableFuture.runAsync(() -> first.complete("a"), CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS));
+
+        // When
+        writer().write(Chunk.of(first, filtered, last));
+
+        // Then
+        assertThat(written).containsExactly("a", "c");
+    }
+
+    @Test
+    @DisplayName("💀 아이템이 실패하면 원래 예외를 던지고, 남은 아이템은 취소하고, 아무것도 쓰지 않는다")
+    void shouldRethrowCauseAndCancelRemaining() {
+        // Given
+        CompletableFuture<String> done = CompletableFuture.completedFuture("a");
+        CompletableFuture<String> failed = CompletableFuture.failedFuture(new IllegalStateException("boom"));
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        Chunk<Future<String>> chunk = Chunk.of(done, failed, pending);
+
+        // When & Then
+        assertThatThrownBy(() -> writer().write(chunk))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("boom");
+        assertThat(pending.isCancelled()).isTrue();
+        assertThat(written).isEmpty();
+    }
+
+    private OrderedAsyncItemWriter<String> writer() {
+        OrderedAsyncItemWriter<String> writer = new OrderedAsyncItemWriter<>();
+        writer.setDelegate(items -> written.addAll(items.getItems()));
+        writer.afterPropertiesSet();
+        return writer;
+    }
+}
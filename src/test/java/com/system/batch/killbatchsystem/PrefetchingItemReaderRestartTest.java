@@ -0,0 +1,144 @@
+package com.system.batch.killbatchsystem;
+
+import com.system.batch.killbatchsystem.chunk.PrefetchingItemReader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefetchingItemReaderRestartTest {
+    private static final int TOTAL = 20;
+
+    // 💀 delegate가 실제로 읽어 간 아이템 수. Step이 꺼낸 수보다 앞서 있어야 한다 💀
+    private final AtomicInteger delegateReads = new AtomicInteger();
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("💀 update()는 미리 읽은 위치가 아니라 Step이 꺼내 간 위치를 남기고, 재시작하면 그 다음부터 읽는다")
+    void shouldSaveConsumedPositionNotPrefetchedPosition() throws Exception {
+        // Given
+        ExecutionContext executionContext = new ExecutionContext();
+        PrefetchingItemReader<Integer> firstRun = reader(1);
+        firstRun.open(executionContext);
+
+        // When - 3개만 꺼냈지만 읽기 스레드는 버퍼(5)만큼 더 읽어 둔다
+        List<Integer> consumed = read(firstRun, 3);
+        awaitDelegateReads(8);
+        firstRun.update(executionContext);
+        firstRun.close();
+
+        // Then
+        assertThat(consumed).containsExactly(1, 2, 3);
+        assertThat(executionContext.getInt("numbers.read.count")).isEqualTo(3);
+
+        // When - 재시작
+        PrefetchingItemReader<Integer> secondRun = reader(1);
+        secondRun.open(executionContext);
+        Integer next = secondRun.read();
+        secondRun.close();
+
+        // Then
+        assertThat(next).isEqualTo(4);
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("💀 snapshotInterval마다만 상태를 찍고, update()는 꺼내 간 마지막 스냅샷을 남긴다")
+    void shouldSaveLastConsumedSnapshotOnly() throws Exception {
+        // Given - 청크 크기 3
+        ExecutionContext executionContext = new ExecutionContext();
+        PrefetchingItemReader<Integer> reader = reader(3);
+        reader.open(executionContext);
+
+        // When & Then - 청크 경계(3, 6)에서 update()하면 정확한 위치가 남는다
+        read(reader, 3);
+        reader.update(executionContext);
+        assertThat(executionContext.getInt("numbers.read.count")).isEqualTo(3);
+
+        read(reader, 3);
+        reader.update(executionContext);
+        assertThat(executionContext.getInt("numbers.read.count")).isEqualTo(6);
+
+        // When & Then - 경계 사이에서는 직전 스냅샷(6)이 남는다
+        read(reader, 2);
+        reader.update(executionContext);
+        assertThat(executionContext.getInt("numbers.read.count")).isEqualTo(6);
+        reader.close();
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("💀 끝까지 읽으면 간격과 상관없이 마지막 상태를 남긴다")
+    void shouldSaveFinalStateAtEnd() throws Exception {
+        // Given
+        ExecutionContext executionContext = new ExecutionContext();
+        PrefetchingItemReader<Integer> reader = reader(7);
+        reader.open(executionContext);
+
+        // When
+        List<Integer> items = read(reader, TOTAL + 1);
+        reader.update(executionContext);
+        reader.close();
+
+        // Then
+        assertThat(items).hasSize(TOTAL);
+        assertThat(executionContext.getInt("numbers.read.count")).isEqualTo(TOTAL + 1);
+    }
+
+    private PrefetchingItemReader<Integer> reader(int snapshotInterval) {
+        PrefetchingItemReader<Integer> reader = new PrefetchingItemReader<>(new NumberReader(), 5);
+        reader.setSnapshotInterval(snapshotInterval);
+        return reader;
+    }
+
+    private List<Integer> read(PrefetchingItemReader<Integer> reader, int count) throws Exception {
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Integer item = reader.read();
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    private void awaitDelegateReads(int count) throws InterruptedException {
+        while (delegateReads.get() < count) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+    }
+
+    /*
+     * 💀 1부터 TOTAL까지 돌려주고, 재시작하면 read.count만큼 건너뛴다 💀
+     */
+    private class NumberReader extends AbstractItemCountingItemStreamItemReader<Integer> {
+        private int next;
+
+        NumberReader() {
+            setName("numbers");
+        }
+
+        @Override
+        protected Integer doRead() {
+            delegateReads.incrementAndGet();
+            return next < TOTAL ? ++next : null;
+        }
+
+        @Override
+        protected void doOpen() {
+            next = 0;
+        }
+
+        @Override
+        protected void doClose() {
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.system.batch.killbatchsystem;
+
+import com.system.batch.killbatchsystem.partitional.ClaimableHourRange;
+import com.system.batch.killbatchsystem.partitional.HourRangeWorkRegistry;
+import com.system.batch.killbatchsystem.partitional.WorkStealingPartitionHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.core.partition.StepExecutionSplitter;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WorkStealingPartitionHandlerTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("💀 실행기가 거절한 파티션은 기다리지 않고 FAILED로 돌려준다")
+    void shouldReturnRejectedPartitionAsFailed() throws Exception {
+        // Given - 실행기가 두 번째로 제출된 파티션을 거절한다
+        JobExecution jobExecution = MetaDataInstanceFactory.createJobExecution();
+        StepExecution managerStepExecution = jobExecution.createStepExecution("managerStep");
+        Set<StepExecution> partitions = Set.of(
+                jobExecution.createStepExecution("workerStep:partition0"),
+                jobExecution.createStepExecution("workerStep:partition1"));
+
+        JobExplorer jobExplorer = mock(JobExplorer.class);
+        when(jobExplorer.getJobExecutions(any())).thenReturn(List.of(jobExecution));
+
+        Step step = mock(Step.class);
+        when(step.getName()).thenReturn("workerStep");
+        doAnswer(invocation -> {
+            invocation.<StepExecution>getArgument(0).setStatus(BatchStatus.COMPLETED);
+            return null;
+        }).when(step).execute(any());
+
+        StepExecutionSplitter splitter = mock(StepExecutionSplitter.class);
+        when(splitter.split(any(), anyInt())).thenReturn(partitions);
+
+        WorkStealingPartitionHandler handler = new WorkStealingPartitionHandler("test", 2, false,
+                new HourRangeWorkRegistry(), mock(JobRepository.class), jobExplorer, new SimpleMeterRegistry()) {
+            @Override
+            protected TaskExecutor createExecutor(int partitionCount) {
+                AtomicInteger submitted = new AtomicInteger();
+                SyncTaskExecutor delegate = new SyncTaskExecutor();
+                return task -> {
+                    if (submitted.incrementAndGet() == 2) {
+                        throw new TaskRejectedException("queue full");
+                    }
+                    delegate.execute(task);
+                };
+            }
+        };
+        handler.setStep(step);
+
+        // When
+        Collection<StepExecution> result = handler.handle(splitter, managerStepExecution);
+
+        // Then
+        assertThat(result).hasSize(2);
+        assertThat(result).filteredOn(execution -> execution.getStatus() == BatchStatus.FAILED)
+                .singleElement()
+                .satisfies(execution -> assertThat(execution.getExitStatus().getExitDescription())
+                        .contains("TaskExecutor rejected the task for this step."));
+        assertThat(result).filteredOn(execution -> execution.getStatus() == BatchStatus.COMPLETED).hasSize(1);
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("💀 claimNext와 stealUpperHalf가 동시에 돌아도 모든 시간 버킷은 정확히 한 번씩만 맡겨진다")
+    void shouldHandOutEveryBucketExactlyOnceUnderContention() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            // Given - 끝이 정시가 아닌 200시간짜리 구간, 읽는 스레드 4개와 떼어가는 스레드 2개
+            LocalDateTime end = START.plusHours(199).plusMinutes(30);
+            ClaimableHourRange range = new ClaimableHourRange(START, end);
+            List<LocalDateTime> handedOut = new CopyOnWriteArrayList<>();
+            CountDownLatch ready = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                threads.add(new Thread(() -> {
+                    await(ready);
+                    LocalDateTime bucket;
+                    while ((bucket = range.claimNext()) != null) {
+                        handedOut.add(bucket);
+                    }
+                }));
+            }
+            for (int i = 0; i < 2; i++) {
+                threads.add(new Thread(() -> {
+                    await(ready);
+                    LocalDateTime[] stolen;
+                    while ((stolen = range.stealUpperHalf(2)) != null) {
+                        // 💀 떼어간 [from, to)는 새 파티션이 시간 버킷 단위로 읽는다 💀
+                        for (LocalDateTime bucket = stolen[0]; bucket.isBefore(stolen[1]); bucket = bucket.plusHours(1)) {
+                            handedOut.add(bucket);
+                        }
+                    }
+                }));
+            }
+
+            // When
+            threads.forEach(Thread::start);
+            ready.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            // Then - 빠진 버킷도, 두 번 맡겨진 버킷도 없다
+            assertThat(handedOut).hasSize(200).doesNotHaveDuplicates();
+            assertThat(new HashSet<>(handedOut)).containsExactlyInAnyOrderElementsOf(
+                    IntStream.range(0, 200).mapToObj(START::plusHours).toList());
+            assertThat(range.unclaimedBuckets()).isZero();
+        }
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("💀 재시작하면 직전 실행에서 떼어내 끝내지 못한 base@start 파티션만 같은 구간으로 되살린다")
+    void shouldRestoreUnfinishedStolenPartitionsOnRestart() throws Exception {
+        // Given - 직전 실행: partition0에서 03시~06시를 떼어낸 파티션은 FAILED, 06시~ 파티션은 COMPLETED
+        JobExecution previous = MetaDataInstanceFactory.createJobExecution("logJob", 1L, 1L);
+        StepExecution failedStolen = stolenPartition(previous, START.plusHours(3), START.plusHours(6), BatchStatus.FAILED);
+        StepExecution completedStolen = stolenPartition(previous, START.plusHours(6), START.plusHours(8), BatchStatus.COMPLETED);
+
+        JobExecution restart = MetaDataInstanceFactory.createJobExecution("logJob", 1L, 2L);
+        StepExecution managerStepExecution = restart.createStepExecution("managerStep");
+        StepExecution partition0 = restart.createStepExecution("workerStep:partition0");
+
+        JobExplorer jobExplorer = mock(JobExplorer.class);
+        when(jobExplorer.getJobExecutions(any())).thenReturn(List.of(restart, previous));
+        JobRepository jobRepository = mock(JobRepository.class);
+        Map<String, StepExecution> lastExecutions = Map.of(
+                failedStolen.getStepName(), failedStolen,
+                completedStolen.getStepName(), completedStolen);
+        when(jobRepository.getLastStepExecution(any(), anyString()))
+                .thenAnswer(invocation -> lastExecutions.get(invocation.<String>getArgument(1)));
+
+        Map<String, ExecutionContext> executed = new ConcurrentHashMap<>();
+        Step step = mock(Step.class);
+        when(step.getName()).thenReturn("workerStep");
+        doAnswer(invocation -> {
+            StepExecution execution = invocation.getArgument(0);
+            executed.put(execution.getStepName(), execution.getExecutionContext());
+            execution.setStatus(BatchStatus.COMPLETED);
+            return null;
+        }).when(step).execute(any());
+
+        StepExecutionSplitter splitter = mock(StepExecutionSplitter.class);
+        when(splitter.split(any(), anyInt())).thenReturn(Set.of(partition0));
+
+        WorkStealingPartitionHandler handler = new WorkStealingPartitionHandler("test", 2, false,
+                new HourRangeWorkRegistry(), jobRepository, jobExplorer, new SimpleMeterRegistry()) {
+            @Override
+            protected TaskExecutor createExecutor(int partitionCount) {
+                return new SyncTaskExecutor();
+            }
+        };
+        handler.setStep(step);
+
+        // When
+        Collection<StepExecution> result = handler.handle(splitter, managerStepExecution);
+
+        // Then - FAILED였던 떼어낸 파티션만 새 StepExecution으로 되살아나 같은 구간을 읽는다
+        assertThat(result).extracting(StepExecution::getStepName)
+                .containsExactlyInAnyOrder("workerStep:partition0", failedStolen.getStepName());
+        assertThat(executed).containsOnlyKeys("workerStep:partition0", failedStolen.getStepName());
+        ExecutionContext restored = executed.get(failedStolen.getStepName());
+        assertThat(restored.get("startDateTime")).isEqualTo(START.plusHours(3));
+        assertThat(restored.get("endDateTime")).isEqualTo(START.plusHours(6));
+        assertThat(result).filteredOn(execution -> execution.getStepName().contains("@"))
+                .singleElement()
+                .satisfies(execution -> assertThat(execution.getJobExecution()).isSameAs(restart));
+    }
+
+    private StepExecution stolenPartition(JobExecution jobExecution, LocalDateTime start, LocalDateTime end,
+                                          BatchStatus status) {
+        StepExecution execution = jobExecution.createStepExecution("workerStep:partition0@" + start);
+        execution.getExecutionContext().put("startDateTime", start);
+        execution.getExecutionContext().put("endDateTime", end);
+        execution.setStatus(status);
+        return execution;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}